@@ -0,0 +1,93 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.expensetracker.cache.ExpenseCacheGenerations;
+import com.expensetracker.cache.ExpenseSnapshotStore;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.CategoryDictionary;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseSearchRepository;
+import com.expensetracker.repository.ExpenseStreamRepository;
+import com.expensetracker.repository.ExpenseWriteRepository;
+import com.expensetracker.repository.routing.ReadYourWrites;
+import com.expensetracker.security.jwt.JwtUtils;
+import com.expensetracker.security.services.UserDetailsImpl;
+import com.expensetracker.service.ExpenseBatchWriter;
+import com.expensetracker.service.ExpenseCreateCoalescer;
+import com.expensetracker.service.ExpenseRollupService;
+import com.expensetracker.service.ExpenseServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "YmVuY2htYXJrc2VjcmV0YmVuY2htYXJrc2VjcmV0YmVuY2htYXJrc2VjcmV0";
+
+    private static final String[] CATEGORIES = {"Food", "Travel", "Rent", "Utilities", "Entertainment", "Health"};
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user() {
+        User user = new User("benchuser", "bench@example.com", "password");
+        user.setId(1L);
+        return user;
+    }
+
+    static Authentication authentication(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+    }
+
+    static JwtUtils jwtUtils(long cacheMaxSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3600000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCacheMaxSize", cacheMaxSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    // Never touches its repository or Redis, so the service falls through to the repository stand-in
+    static ExpenseSnapshotStore disabledSnapshotStore() {
+        return new ExpenseSnapshotStore(null, null, new CacheInvalidationBus(null), new SimpleMeterRegistry(), false, 64);
+    }
+
+    /**
+     * The service over the given repository, as its read paths see it: the snapshot store is disabled
+     * and every other collaborator is a Mockito mock the benchmarked methods never call.
+     */
+    static ExpenseServiceImpl expenseService(ExpenseRepository expenseRepository, User user) {
+        ExpenseServiceImpl expenseService = new ExpenseServiceImpl(expenseRepository, () -> user,
+                mock(ExpenseCacheGenerations.class), mock(ExpenseStreamRepository.class), mock(ObjectMapper.class),
+                mock(ExpenseRollupService.class), disabledSnapshotStore(), mock(ExpenseWriteRepository.class),
+                mock(ExpenseSearchRepository.class), mock(CategoryDictionary.class), mock(ExpenseBatchWriter.class),
+                mock(ExpenseCreateCoalescer.class), mock(ReadYourWrites.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(expenseService, "pageDefaultSize", 50);
+        ReflectionTestUtils.setField(expenseService, "pageMaxSize", 200);
+        return expenseService;
+    }
+
+    // One expense per day walking back from 2025-01-01, cycling through a fixed set of categories
+    static List<Expense> expenses(User user, int count) {
+        List<Expense> expenses = new ArrayList<>(count);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < count; i++) {
+            expenses.add(new Expense((long) i + 1, "Expense " + i, 10.0 + (i % 97), start.minusDays(i),
+                    CATEGORIES[i % CATEGORIES.length], user));
+        }
+        return expenses;
+    }
+}
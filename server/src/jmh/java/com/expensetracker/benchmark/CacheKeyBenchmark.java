@@ -0,0 +1,87 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.User;
+import com.expensetracker.service.ExpenseServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates the key expressions declared on ExpenseServiceImpl's @Cacheable methods the way the
+ * caching interceptor does: a fresh method-based context per call against a pre-parsed expression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    // Stands in for the generation bean so the benchmark measures SpEL, not Redis
+    private final FixedGenerations generations = new FixedGenerations();
+    private final BeanResolver beanResolver = (context, beanName) -> generations;
+
+    private Method getAllExpenses;
+    private Expression getAllExpensesKey;
+    private Object[] getAllExpensesArgs;
+
+    private Method getExpenseById;
+    private Expression getExpenseByIdKey;
+    private Object[] getExpenseByIdArgs;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        SpelExpressionParser parser = new SpelExpressionParser();
+        User user = BenchmarkFixtures.user();
+
+        getAllExpenses = ExpenseServiceImpl.class.getMethod("getAllExpenses", User.class, LocalDate.class, LocalDate.class);
+        getAllExpensesKey = parser.parseExpression(getAllExpenses.getAnnotation(Cacheable.class).key());
+        getAllExpensesArgs = new Object[]{user, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)};
+
+        getExpenseById = ExpenseServiceImpl.class.getMethod("getExpenseById", User.class, Long.class);
+        getExpenseByIdKey = parser.parseExpression(getExpenseById.getAnnotation(Cacheable.class).key());
+        getExpenseByIdArgs = new Object[]{user, 42L};
+    }
+
+    @Benchmark
+    public Object getAllExpensesKey() {
+        return getAllExpensesKey.getValue(context(getAllExpenses, getAllExpensesArgs));
+    }
+
+    @Benchmark
+    public Object getExpenseByIdKey() {
+        return getExpenseByIdKey.getValue(context(getExpenseById, getExpenseByIdArgs));
+    }
+
+    private MethodBasedEvaluationContext context(Method method, Object[] args) {
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, method, args, parameterNameDiscoverer);
+        context.setBeanResolver(beanResolver);
+        return context;
+    }
+
+    public static class FixedGenerations {
+        public long current(Long userId) {
+            return 3L;
+        }
+    }
+}
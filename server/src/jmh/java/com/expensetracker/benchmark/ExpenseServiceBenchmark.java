@@ -0,0 +1,72 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.response.ExpensePageResponse;
+import com.expensetracker.repository.projection.ExpenseView;
+import com.expensetracker.service.ExpenseServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-layer cost of the read paths with the repository replaced by an in-memory stand-in.
+ * Caching annotations are inactive here because the service is not behind a Spring proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ExpenseServiceImpl expenseService;
+    private User user;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user();
+        List<Expense> expenses = BenchmarkFixtures.expenses(user, size);
+        expenseService = BenchmarkFixtures.expenseService(InMemoryExpenseRepository.create(expenses), user);
+        startDate = LocalDate.of(2024, 1, 1);
+        endDate = LocalDate.of(2024, 12, 31);
+    }
+
+    @Benchmark
+    public List<ExpenseView> getAllExpenses() {
+        return expenseService.getAllExpenses(user, null, null);
+    }
+
+    @Benchmark
+    public List<ExpenseView> getAllExpensesInRange() {
+        return expenseService.getAllExpenses(user, startDate, endDate);
+    }
+
+    @Benchmark
+    public ExpensePageResponse getExpensePage() {
+        return expenseService.getExpensePage(user, null, null, null, 50);
+    }
+
+    @Benchmark
+    public ExpenseView getExpenseById() {
+        return expenseService.getExpenseById(user, 42L);
+    }
+}
@@ -0,0 +1,75 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.cache.ExpenseSnapshot;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.projection.CategoryTotal;
+import com.expensetracker.repository.projection.ExpenseView;
+import com.expensetracker.repository.projection.PeriodTotal;
+import com.expensetracker.service.SummaryPeriod;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range reads and aggregates served from a columnar snapshot, for comparison with
+ * {@link ExpenseServiceBenchmark}, plus the copy-on-write cost of applying one write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseSnapshotBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ExpenseSnapshot snapshot;
+    private User user;
+    private Expense update;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user();
+        snapshot = ExpenseSnapshot.of(BenchmarkFixtures.expenses(user, size));
+        update = new Expense(42L, "Updated", 12.5, LocalDate.of(2024, 6, 1), "Travel", user);
+        startDate = LocalDate.of(2024, 1, 1);
+        endDate = LocalDate.of(2024, 12, 31);
+    }
+
+    @Benchmark
+    public List<ExpenseView> findInRange() {
+        return snapshot.find(startDate, endDate);
+    }
+
+    @Benchmark
+    public List<CategoryTotal> sumByCategory() {
+        return snapshot.sumByCategory(null, null);
+    }
+
+    @Benchmark
+    public List<PeriodTotal> sumByMonth() {
+        return snapshot.sumByPeriod(SummaryPeriod.MONTH, null, null);
+    }
+
+    @Benchmark
+    public ExpenseSnapshot applyUpdate() {
+        return snapshot.withUpserted(update);
+    }
+}
@@ -0,0 +1,105 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.projection.ExpenseView;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Heap-backed stand-in for the read methods of {@link ExpenseRepository}, so service benchmarks
+ * measure service code rather than PostgreSQL. Anything else throws UnsupportedOperationException.
+ */
+final class InMemoryExpenseRepository implements InvocationHandler {
+
+    // Undated expenses last, like getExpensePage
+    private static final Comparator<Expense> NEWEST_FIRST = Comparator.comparing(Expense::getDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Expense::getId).reversed();
+
+    private final List<Expense> expenses;
+    private final Map<Long, Expense> byId = new HashMap<>();
+
+    private InMemoryExpenseRepository(List<Expense> expenses) {
+        this.expenses = expenses;
+        expenses.forEach(expense -> byId.put(expense.getId(), expense));
+    }
+
+    static ExpenseRepository create(List<Expense> expenses) {
+        return (ExpenseRepository) Proxy.newProxyInstance(ExpenseRepository.class.getClassLoader(),
+                new Class<?>[]{ExpenseRepository.class}, new InMemoryExpenseRepository(expenses));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "findViews":
+                return filter(owner(args[0]).and(inRange(args)));
+            case "findViewByIdAndUserId":
+                return Optional.ofNullable(byId.get((Long) args[0])).filter(owner(args[1])).map(ExpenseView::of);
+            case "findFirstPage":
+                return page(dated().and(inRange(args)).and(owner(args[0])), (Pageable) args[3]);
+            case "findPageAfter":
+                LocalDate afterDate = (LocalDate) args[3];
+                Long afterId = (Long) args[4];
+                return page(dated().and(inRange(args)).and(owner(args[0])).and(e -> e.getDate().isBefore(afterDate)
+                        || (e.getDate().equals(afterDate) && e.getId() < afterId)), (Pageable) args[5]);
+            case "findUndatedPage":
+                Long afterUndatedId = (Long) args[1];
+                return page(owner(args[0]).and(e -> e.getDate() == null && (afterUndatedId == null || e.getId() < afterUndatedId)),
+                        (Pageable) args[2]);
+            case "toString":
+                return "InMemoryExpenseRepository";
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private static Predicate<Expense> owner(Object userId) {
+        return expense -> expense.getUser().getId().equals(userId);
+    }
+
+    private static Predicate<Expense> dated() {
+        return expense -> expense.getDate() != null;
+    }
+
+    private static Predicate<Expense> inRange(Object[] args) {
+        LocalDate startDate = (LocalDate) args[1];
+        LocalDate endDate = (LocalDate) args[2];
+        return expense -> (startDate == null || (expense.getDate() != null && !expense.getDate().isBefore(startDate)))
+                && (endDate == null || (expense.getDate() != null && !expense.getDate().isAfter(endDate)));
+    }
+
+    private List<ExpenseView> filter(Predicate<Expense> predicate) {
+        List<ExpenseView> result = new ArrayList<>();
+        for (Expense expense : expenses) {
+            if (predicate.test(expense)) {
+                result.add(ExpenseView.of(expense));
+            }
+        }
+        return result;
+    }
+
+    private List<ExpenseView> page(Predicate<Expense> predicate, Pageable pageable) {
+        return expenses.stream()
+                .filter(predicate)
+                .sorted(NEWEST_FIRST)
+                .limit(pageable.getPageSize())
+                .map(ExpenseView::of)
+                .toList();
+    }
+}
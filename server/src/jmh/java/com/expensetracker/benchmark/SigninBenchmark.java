@@ -0,0 +1,66 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign-in password checks per second at each BCrypt cost, with concurrent callers. Direct runs
+ * the hash on the calling thread as before; bounded goes through the hashing pool, whose
+ * throughput is capped by its thread count however many callers arrive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(8)
+@Fork(1)
+public class SigninBenchmark {
+
+    @Param({"8", "10", "12"})
+    public int cost;
+
+    private BCryptPasswordEncoder direct;
+    private BoundedPasswordEncoder bounded;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        direct = new BCryptPasswordEncoder(cost);
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // Queue and timeout large enough that the benchmark measures throughput, not rejections
+        bounded = new BoundedPasswordEncoder(direct, threads, 1024, TimeUnit.MINUTES.toMillis(1), new SimpleMeterRegistry());
+        hash = direct.encode("correct horse battery staple");
+    }
+
+    @TearDown
+    public void tearDown() {
+        bounded.close();
+    }
+
+    @Benchmark
+    public boolean signinDirect() {
+        return direct.matches("correct horse battery staple", hash);
+    }
+
+    @Benchmark
+    public boolean signinBounded() {
+        return bounded.matches("correct horse battery staple", hash);
+    }
+}
@@ -0,0 +1,136 @@
+package com.expensetracker.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load test for comparing the server's thread modes. Start the server once with
+ * VIRTUAL_THREADS_ENABLED=false and once with true, run this against each, and compare the two
+ * target/loadtest-&lt;label&gt;.json files (throughput, p50/p99/p999 latency, errors).
+ * <p>
+ * mvn -Pbenchmark -DskipTests test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.expensetracker.benchmark.ThreadModeLoadTest -Dloadtest.label=platform
+ * <p>
+ * Settings (system properties): loadtest.baseUrl, loadtest.username, loadtest.password,
+ * loadtest.path, loadtest.concurrency, loadtest.warmupSeconds, loadtest.durationSeconds, loadtest.label.
+ */
+public final class ThreadModeLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    private ThreadModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.baseUrl", "http://localhost:8080");
+        String username = System.getProperty("loadtest.username", "loadtest");
+        String password = System.getProperty("loadtest.password", "loadtest-password");
+        String path = System.getProperty("loadtest.path", "/api/v1/expenses/page?limit=20");
+        int concurrency = Integer.getInteger("loadtest.concurrency", 1000);
+        int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 10);
+        int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+        String label = System.getProperty("loadtest.label", "run");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        String token = signIn(client, baseUrl, username, password);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        System.out.printf("Warming up %d clients for %ds...%n", concurrency, warmupSeconds);
+        run(client, request, concurrency, warmupSeconds);
+        System.out.printf("Measuring %d clients for %ds...%n", concurrency, durationSeconds);
+        Result result = run(client, request, concurrency, durationSeconds);
+
+        Histogram latency = result.latency;
+        double throughput = (double) latency.getTotalCount() / durationSeconds;
+        String json = String.format(Locale.ROOT,
+                "{\"label\":\"%s\",\"path\":\"%s\",\"concurrency\":%d,\"durationSeconds\":%d,\"requests\":%d,\"errors\":%d," +
+                        "\"throughputPerSecond\":%.1f,\"latencyMs\":{\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"p999\":%.3f,\"max\":%.3f}}%n",
+                label, path, concurrency, durationSeconds, latency.getTotalCount(), result.errors.sum(), throughput,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+        Path output = Path.of("target", "loadtest-" + label + ".json");
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, json);
+        System.out.print(json);
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, int seconds) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                result.errors.increment();
+                            }
+                        } catch (IOException e) {
+                            result.errors.increment();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        result.latency.recordValue(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private static String signIn(HttpClient client, String baseUrl, String username, String password) throws Exception {
+        String signup = String.format("{\"username\":\"%s\",\"email\":\"%s@example.com\",\"password\":\"%s\"}", username, username, password);
+        // Ignore the outcome: the user usually exists from an earlier run
+        client.send(jsonPost(baseUrl + "/api/v1/auth/signup", signup), HttpResponse.BodyHandlers.discarding());
+        String signin = String.format("{\"username\":\"%s\",\"password\":\"%s\"}", username, password);
+        HttpResponse<String> response = client.send(jsonPost(baseUrl + "/api/v1/auth/signin", signin), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Sign-in failed with status " + response.statusCode() + ": " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static HttpRequest jsonPost(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Result {
+        // 1 microsecond to 60 seconds at 3 significant digits
+        private final Histogram latency = new ConcurrentHistogram(TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(60), 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
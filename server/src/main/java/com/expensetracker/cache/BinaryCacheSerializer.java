@@ -0,0 +1,211 @@
+package com.expensetracker.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Value serializer for one Redis cache. Each entry starts with a four-byte header (format marker,
+ * codec tag, codec version, flags) followed by the codec's payload, deflated when it is larger
+ * than the compression threshold and compressing actually helps. An entry this build cannot read
+ * (an older layout, a codec it does not know, or the JDK-serialized entries written before this
+ * serializer) decodes to null, which the cache treats as a miss and overwrites on the next put.
+ */
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryCacheSerializer.class);
+
+    private static final byte FORMAT = (byte) 0xB1; // Never the 0xAC that opens a JDK serialization stream
+    private static final int HEADER_SIZE = 4;
+    private static final int DEFLATED = 1;
+
+    private final String cacheName;
+    private final List<CacheValueCodec> codecs;
+    private final int compressionThreshold;
+    private final DistributionSummary entrySize;
+    private final Timer encodeTime;
+    private final Timer decodeTime;
+    private final Counter compressed;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param codecs tried in order, so the JDK fallback goes last
+     * @param compressionThreshold payloads above this many bytes are deflated; 0 never deflates
+     */
+    public BinaryCacheSerializer(String cacheName, List<CacheValueCodec> codecs, int compressionThreshold, MeterRegistry meterRegistry) {
+        this.cacheName = cacheName;
+        this.codecs = List.copyOf(codecs);
+        this.compressionThreshold = compressionThreshold;
+        this.meterRegistry = meterRegistry;
+        this.entrySize = DistributionSummary.builder("cache.value.size")
+                .description("Bytes stored in Redis per cache entry, after compression")
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+        this.encodeTime = codecTimer("encode");
+        this.decodeTime = codecTimer("decode");
+        this.compressed = Counter.builder("cache.value.compressed")
+                .description("Cache entries stored deflated")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (value == null) {
+            return null;
+        }
+        long started = System.nanoTime();
+        CacheValueCodec codec = codecFor(value);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(new byte[HEADER_SIZE]); // Filled in below, once we know whether the payload is deflated
+            codec.write(value, out);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot encode " + value.getClass().getName() + " for cache " + cacheName, e);
+        }
+        byte[] entry = bytes.toByteArray();
+        int flags = 0;
+        if (compressionThreshold > 0 && entry.length - HEADER_SIZE > compressionThreshold) {
+            byte[] deflated = deflate(entry);
+            if (deflated.length < entry.length) {
+                entry = deflated;
+                flags |= DEFLATED;
+                compressed.increment();
+            }
+        }
+        entry[0] = FORMAT;
+        entry[1] = codec.tag();
+        entry[2] = codec.version();
+        entry[3] = (byte) flags;
+        encodeTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        entrySize.record(entry.length);
+        return entry;
+    }
+
+    @Override
+    public Object deserialize(byte[] entry) {
+        if (entry == null || entry.length == 0) {
+            return null;
+        }
+        long started = System.nanoTime();
+        if (entry.length < HEADER_SIZE || entry[0] != FORMAT) {
+            return discard("format");
+        }
+        CacheValueCodec codec = codecForTag(entry[1]);
+        if (codec == null || codec.version() != entry[2]) {
+            return discard("version");
+        }
+        try {
+            byte[] payload = (entry[3] & DEFLATED) != 0 ? inflate(entry) : entry;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, HEADER_SIZE, payload.length - HEADER_SIZE));
+            Object value = codec.read(in);
+            decodeTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return value;
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            logger.warn("Dropping unreadable entry from cache {}: {}", cacheName, e.toString());
+            return discard("corrupt");
+        }
+    }
+
+    private CacheValueCodec codecFor(Object value) {
+        for (CacheValueCodec codec : codecs) {
+            if (codec.canEncode(value)) {
+                return codec;
+            }
+        }
+        throw new SerializationException("No cache codec for " + value.getClass().getName() + " in cache " + cacheName);
+    }
+
+    private CacheValueCodec codecForTag(byte tag) {
+        for (CacheValueCodec codec : codecs) {
+            if (codec.tag() == tag) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    private Object discard(String reason) {
+        Counter.builder("cache.value.discarded")
+                .description("Cache entries read as misses because this build cannot decode them")
+                .tag("cache", cacheName)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return null;
+    }
+
+    private Timer codecTimer(String operation) {
+        return Timer.builder("cache.value.codec")
+                .description("Time to encode or decode a cache entry")
+                .tag("cache", cacheName)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    // Keeps the header in place and appends the original length, so inflating can size its buffer up front
+    private static byte[] deflate(byte[] entry) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(entry, HEADER_SIZE, entry.length - HEADER_SIZE);
+            deflater.finish();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.length / 2);
+            bytes.write(entry, 0, HEADER_SIZE);
+            int length = entry.length - HEADER_SIZE;
+            bytes.write(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length}, 0, 4);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                bytes.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return bytes.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] entry) throws DataFormatException, IOException {
+        int offset = HEADER_SIZE + 4;
+        if (entry.length < offset) {
+            throw new IOException("Truncated deflated entry");
+        }
+        int length = ((entry[HEADER_SIZE] & 0xFF) << 24) | ((entry[HEADER_SIZE + 1] & 0xFF) << 16)
+                | ((entry[HEADER_SIZE + 2] & 0xFF) << 8) | (entry[HEADER_SIZE + 3] & 0xFF);
+        if (length < 0) {
+            throw new IOException("Implausible inflated length: " + length);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(entry, offset, entry.length - offset);
+            byte[] payload = Arrays.copyOf(entry, HEADER_SIZE + length);
+            int read = 0;
+            while (read < length) {
+                int n = inflater.inflate(payload, HEADER_SIZE + read, length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Deflated entry ends early");
+                }
+                read += n;
+            }
+            return payload;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.repository.CategoryDictionary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.thread.Threading;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Value("${expensetracker.app.nearCacheTtlMs:10000}")
+    private long nearCacheTtlMs;
+
+    @Value("${expensetracker.app.nearCacheMaxSize:10000}")
+    private long nearCacheMaxSize;
+
+    @Value("${expensetracker.app.cacheCompressionThresholdBytes:1024}")
+    private int cacheCompressionThresholdBytes;
+
+    // Shared L2; mirrors what Spring Boot would auto-configure from spring.cache.redis.*, but with binary values
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory, CacheProperties cacheProperties,
+                                               CategoryDictionary categoryDictionary, MeterRegistry meterRegistry) {
+        CacheProperties.Redis redisProperties = cacheProperties.getRedis();
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig(getClass().getClassLoader());
+        if (redisProperties.getTimeToLive() != null) {
+            config = config.entryTtl(redisProperties.getTimeToLive());
+        }
+        ExpenseViewCodec viewCodec = new ExpenseViewCodec(categoryDictionary);
+        List<CacheValueCodec> codecs = List.of(viewCodec, new ExpenseViewListCodec(viewCodec), new JdkCacheValueCodec(getClass().getClassLoader()));
+        // A serializer per named cache so size and codec time are tagged with it; caches created later share "default"
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(withBinaryValues(config, "default", codecs, meterRegistry));
+        for (String name : new LinkedHashSet<>(cacheProperties.getCacheNames())) {
+            builder.withCacheConfiguration(name, withBinaryValues(config, name, codecs, meterRegistry));
+        }
+        if (redisProperties.isEnableStatistics()) {
+            builder.enableStatistics();
+        }
+        return builder.build();
+    }
+
+    private RedisCacheConfiguration withBinaryValues(RedisCacheConfiguration config, String cacheName, List<CacheValueCodec> codecs,
+                                                     MeterRegistry meterRegistry) {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer(cacheName, codecs, cacheCompressionThresholdBytes, meterRegistry);
+        return config.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        return new CacheInvalidationBus(redisTemplate);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheInvalidationBus cacheInvalidationBus,
+                                                                           Environment environment) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("cache-invalidation-");
+            executor.setVirtualThreads(true);
+            container.setTaskExecutor(executor);
+        }
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    @Primary
+    public CacheManager cacheManager(RedisCacheManager redisCacheManager, CacheInvalidationBus cacheInvalidationBus) {
+        return new TwoLevelCacheManager(redisCacheManager, cacheInvalidationBus, Duration.ofMillis(nearCacheTtlMs), nearCacheMaxSize);
+    }
+
+    // Publishes the L1 tier's hit/miss/eviction counters; the L2 tier is bound through redisCacheManager.
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName(), Tags.concat(tags, "tier", "local"));
+    }
+}
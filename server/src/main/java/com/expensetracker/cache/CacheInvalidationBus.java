@@ -0,0 +1,77 @@
+package com.expensetracker.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Broadcasts local cache invalidations to the other nodes over Redis pub/sub.
+ * Messages are best-effort; a lost message is bounded by the local cache TTL.
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+    public static final String CHANNEL = "expensetracker:cache:invalidation";
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Listener> listeners = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void register(String cacheName, Listener listener) {
+        listeners.put(cacheName, listener);
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(String.join("|", nodeId, EVICT, cacheName, key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(String.join("|", nodeId, CLEAR, cacheName, ""));
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return; // Malformed, or our own write which already updated the local tier
+        }
+        Listener listener = listeners.get(parts[2]);
+        if (listener == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[1])) {
+            listener.clearLocal();
+        } else {
+            listener.evictLocal(parts[3]);
+        }
+    }
+
+    public interface Listener {
+        void evictLocal(String key);
+
+        void clearLocal();
+    }
+}
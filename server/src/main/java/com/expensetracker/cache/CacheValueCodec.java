@@ -0,0 +1,25 @@
+package com.expensetracker.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Binary layout for one kind of cached value, plugged into {@link BinaryCacheSerializer}. Every
+ * entry records the codec's tag and version, so an entry written by a different build is
+ * recognised and treated as a miss instead of being misread.
+ */
+public interface CacheValueCodec {
+
+    /** Identifies the codec in stored entries; never reuse a tag for a different kind of value. */
+    byte tag();
+
+    /** Bump whenever the layout written by {@link #write} changes. */
+    byte version();
+
+    boolean canEncode(Object value);
+
+    void write(Object value, DataOutputStream out) throws IOException;
+
+    Object read(DataInputStream in) throws IOException;
+}
@@ -0,0 +1,120 @@
+package com.expensetracker.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-user generation counter that is part of every "expenses" cache key.
+ * A write bumps only the owner's generation, so their cached date-range lists become unreachable
+ * (and age out through the cache TTL) while every other user's entries stay warm.
+ * The counters live in Redis and are mirrored locally like any other near-cache entry.
+ * <p>
+ * Redis does not keep them durably, so each user's counter sits in a hash next to a random epoch that
+ * is set only when missing, and the generation is their sum. If Redis loses the hash, the counter
+ * restarts under a new epoch instead of repeating values that cached lists and ETags already vouch for.
+ */
+@Component("expenseCacheGenerations")
+public class ExpenseCacheGenerations implements CacheInvalidationBus.Listener {
+
+    static final String CACHE_NAME = "expenses:generation";
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseCacheGenerations.class);
+
+    // A new prefix, since the plain counters under "expenses:generation:" cannot be read as hashes
+    private static final String KEY_PREFIX = "expenses:generation:v2:";
+    private static final String EPOCH = "epoch";
+    private static final String COUNT = "count";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<String, Long> localGenerations;
+
+    public ExpenseCacheGenerations(StringRedisTemplate redisTemplate, CacheInvalidationBus invalidationBus,
+                                   @Value("${expensetracker.app.nearCacheTtlMs:10000}") long localTtlMs,
+                                   @Value("${expensetracker.app.nearCacheMaxSize:10000}") long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.localGenerations = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofMillis(localTtlMs))
+                .build();
+        invalidationBus.register(CACHE_NAME, this);
+    }
+
+    public long current(Long userId) {
+        return localGenerations.get(userId.toString(), key -> {
+            List<String> values = hash().multiGet(KEY_PREFIX + key, List.of(EPOCH, COUNT));
+            long epoch = values.get(0) != null ? Long.parseLong(values.get(0)) : epochOf(KEY_PREFIX + key);
+            return epoch + parse(values.get(1));
+        });
+    }
+
+    public long bump(Long userId) {
+        String key = KEY_PREFIX + userId;
+        Long count = hash().increment(key, COUNT, 1);
+        // Read after the increment, so a hash that vanished in between gets a new epoch rather than an old one
+        long current = epochOf(key) + (count != null ? count : 0L);
+        localGenerations.put(userId.toString(), current);
+        invalidationBus.publishEvict(CACHE_NAME, userId.toString());
+        return current;
+    }
+
+    /**
+     * Bumps once the surrounding transaction commits, so a concurrent reader cannot cache pre-commit
+     * data under the new generation. Bumps immediately when no transaction is active. A failed bump
+     * after commit is logged rather than thrown, since the write itself has already succeeded.
+     */
+    public void bumpAfterCommit(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    bump(userId);
+                } catch (RuntimeException e) {
+                    // Cached lists for the user may be served stale until they expire
+                    localGenerations.invalidate(userId.toString());
+                    logger.warn("Could not bump the cache generation of user {} after commit: {}", userId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        localGenerations.invalidate(key);
+    }
+
+    @Override
+    public void clearLocal() {
+        localGenerations.invalidateAll();
+    }
+
+    private long epochOf(String key) {
+        String epoch = Long.toString(ThreadLocalRandom.current().nextLong());
+        return Boolean.TRUE.equals(hash().putIfAbsent(key, EPOCH, epoch)) ? Long.parseLong(epoch) : parse(hash().get(key, EPOCH));
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return redisTemplate.opsForHash();
+    }
+
+    private static long parse(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+}
@@ -0,0 +1,424 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.projection.CategoryTotal;
+import com.expensetracker.repository.projection.ExpenseView;
+import com.expensetracker.repository.projection.PeriodTotal;
+import com.expensetracker.service.SummaryPeriod;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable column-per-field copy of one user's expenses, sorted by (date, id). Range lookups are a
+ * pair of binary searches over {@code epochDays} and aggregates are loops over primitive arrays.
+ * Amounts are held in minor units (cents), so a user whose history has sub-cent amounts cannot be
+ * snapshotted and {@link #of} returns null for them. Writes produce a new snapshot; readers holding
+ * the old one are unaffected.
+ */
+public final class ExpenseSnapshot {
+
+    // Sorts before every real date, so undated expenses sit at the front and fall outside every range
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    private static final int MAX_CATEGORIES = Short.MAX_VALUE;
+
+    private static final Comparator<Expense> BY_DATE_AND_ID =
+            Comparator.comparingInt(ExpenseSnapshot::epochDay).thenComparingLong(Expense::getId);
+
+    private final int[] epochDays;
+    private final long[] amounts;
+    private final short[] categoryIds;
+    private final long[] ids;
+    private final long[] versions;
+    private final String[] descriptions;
+    private final String[] categories;
+
+    private ExpenseSnapshot(int[] epochDays, long[] amounts, short[] categoryIds, long[] ids, long[] versions,
+                            String[] descriptions, String[] categories) {
+        this.epochDays = epochDays;
+        this.amounts = amounts;
+        this.categoryIds = categoryIds;
+        this.ids = ids;
+        this.versions = versions;
+        this.descriptions = descriptions;
+        this.categories = categories;
+    }
+
+    /** Builds a snapshot from rows in any order, or returns null when they cannot be represented. */
+    public static ExpenseSnapshot of(List<Expense> expenses) {
+        List<Expense> sorted = new ArrayList<>(expenses);
+        sorted.sort(BY_DATE_AND_ID);
+        int size = sorted.size();
+        int[] epochDays = new int[size];
+        long[] amounts = new long[size];
+        short[] categoryIds = new short[size];
+        long[] ids = new long[size];
+        long[] versions = new long[size];
+        String[] descriptions = new String[size];
+        List<String> categories = new ArrayList<>();
+        Map<String, Integer> categoryIndex = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Expense expense = sorted.get(i);
+            Long minor = toMinor(expense.getAmount());
+            int categoryId = categoryIndex.computeIfAbsent(expense.getCategory(), category -> {
+                categories.add(category);
+                return categories.size() - 1;
+            });
+            if (minor == null || categoryId >= MAX_CATEGORIES) {
+                return null;
+            }
+            epochDays[i] = epochDay(expense);
+            amounts[i] = minor;
+            categoryIds[i] = (short) categoryId;
+            ids[i] = expense.getId();
+            versions[i] = version(expense);
+            descriptions[i] = expense.getDescription();
+        }
+        return new ExpenseSnapshot(epochDays, amounts, categoryIds, ids, versions, descriptions, categories.toArray(new String[0]));
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /** Rough heap footprint, used as the weight against the snapshot memory budget. */
+    public long estimatedBytes() {
+        long bytes = 128L + ids.length * (4L + 8L + 2L + 8L + 8L + 8L);
+        for (String description : descriptions) {
+            bytes += description != null ? 40L + description.length() : 0L;
+        }
+        for (String category : categories) {
+            bytes += 8L + (category != null ? 40L + category.length() : 0L);
+        }
+        return bytes;
+    }
+
+    /**
+     * Same rows and bounds as the database path of getAllExpenses: both dates
+     * inclusive, a lone start or end date exclusive, and no dates meaning everything including undated rows.
+     */
+    public List<ExpenseView> find(LocalDate startDate, LocalDate endDate) {
+        int from;
+        int to;
+        if (startDate != null && endDate != null) {
+            from = lowerBound((int) startDate.toEpochDay());
+            to = lowerBound((int) endDate.toEpochDay() + 1);
+        } else if (startDate != null) {
+            from = lowerBound((int) startDate.toEpochDay() + 1);
+            to = ids.length;
+        } else if (endDate != null) {
+            from = lowerBound(NO_DATE + 1);
+            to = lowerBound((int) endDate.toEpochDay());
+        } else {
+            from = 0;
+            to = ids.length;
+        }
+        List<ExpenseView> expenses = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            expenses.add(new ExpenseView(ids[i], descriptions[i], amounts[i] / 100.0,
+                    epochDays[i] != NO_DATE ? LocalDate.ofEpochDay(epochDays[i]) : null,
+                    categories[categoryIds[i]], versions[i]));
+        }
+        return expenses;
+    }
+
+    /** Per-category totals over an inclusive range, ordered by total descending like sumByCategory. */
+    public List<CategoryTotal> sumByCategory(LocalDate startDate, LocalDate endDate) {
+        int from = startDate != null ? lowerBound((int) startDate.toEpochDay()) : 0;
+        int to = endDate != null ? lowerBound((int) endDate.toEpochDay() + 1) : ids.length;
+        if (startDate == null && endDate != null) {
+            from = lowerBound(NO_DATE + 1);
+        }
+        long[] totals = new long[categories.length];
+        long[] counts = new long[categories.length];
+        long[] mins = new long[categories.length];
+        long[] maxes = new long[categories.length];
+        for (int i = from; i < to; i++) {
+            int category = categoryIds[i];
+            long amount = amounts[i];
+            if (counts[category] == 0 || amount < mins[category]) {
+                mins[category] = amount;
+            }
+            if (counts[category] == 0 || amount > maxes[category]) {
+                maxes[category] = amount;
+            }
+            totals[category] += amount;
+            counts[category]++;
+        }
+        List<CategoryTotal> result = new ArrayList<>();
+        for (int category = 0; category < categories.length; category++) {
+            if (counts[category] > 0) {
+                result.add(new SnapshotCategoryTotal(categories[category], totals[category] / 100.0, counts[category],
+                        mins[category] / 100.0, maxes[category] / 100.0));
+            }
+        }
+        result.sort(Comparator.comparing(CategoryTotal::getTotal).reversed());
+        return result;
+    }
+
+    /** Totals per day, week or month over an inclusive range; undated rows are never included. */
+    public List<PeriodTotal> sumByPeriod(SummaryPeriod period, LocalDate startDate, LocalDate endDate) {
+        int from = lowerBound(startDate != null ? (int) startDate.toEpochDay() : NO_DATE + 1);
+        int to = endDate != null ? lowerBound((int) endDate.toEpochDay() + 1) : ids.length;
+        List<PeriodTotal> result = new ArrayList<>();
+        int periodStart = 0;
+        int periodEnd = NO_DATE; // Rows are sorted by day, so a new bucket starts once a day reaches this
+        long total = 0;
+        long count = 0;
+        long min = 0;
+        long max = 0;
+        for (int i = from; i < to; i++) {
+            int day = epochDays[i];
+            if (day >= periodEnd) {
+                if (count > 0) {
+                    result.add(periodTotal(periodStart, total, count, min, max));
+                }
+                periodStart = periodStart(period, day);
+                periodEnd = periodEnd(period, periodStart);
+                total = 0;
+                count = 0;
+            }
+            long amount = amounts[i];
+            if (count == 0 || amount < min) {
+                min = amount;
+            }
+            if (count == 0 || amount > max) {
+                max = amount;
+            }
+            total += amount;
+            count++;
+        }
+        if (count > 0) {
+            result.add(periodTotal(periodStart, total, count, min, max));
+        }
+        return result;
+    }
+
+    /** Returns a snapshot with the expense inserted, or replacing the row with the same id. */
+    public ExpenseSnapshot withUpserted(Expense expense) {
+        return withUpserted(List.of(expense));
+    }
+
+    /**
+     * Returns a snapshot with the expenses inserted, or replacing rows with the same ids, built in one
+     * merge of the sorted batch into the existing rows; null when any of them cannot be represented.
+     */
+    public ExpenseSnapshot withUpserted(List<Expense> expenses) {
+        Map<Long, Expense> byId = new LinkedHashMap<>(); // A later row for the same id wins, as it would in order
+        for (Expense expense : expenses) {
+            if (toMinor(expense.getAmount()) == null) {
+                return null;
+            }
+            byId.put(expense.getId(), expense);
+        }
+        List<Expense> batch = new ArrayList<>(byId.values());
+        batch.sort(BY_DATE_AND_ID);
+        List<String> dictionary = new ArrayList<>(Arrays.asList(categories));
+        Map<String, Integer> categoryIndex = new HashMap<>();
+        for (int i = dictionary.size() - 1; i >= 0; i--) {
+            categoryIndex.put(dictionary.get(i), i);
+        }
+        int kept = 0;
+        for (long id : ids) {
+            if (!byId.containsKey(id)) {
+                kept++;
+            }
+        }
+        int size = kept + batch.size();
+        int[] newEpochDays = new int[size];
+        long[] newAmounts = new long[size];
+        short[] newCategoryIds = new short[size];
+        long[] newIds = new long[size];
+        long[] newVersions = new long[size];
+        String[] newDescriptions = new String[size];
+        int from = 0;
+        int next = 0;
+        for (int to = 0; to < size; to++) {
+            while (from < ids.length && byId.containsKey(ids[from])) {
+                from++;
+            }
+            Expense expense = next < batch.size() ? batch.get(next) : null;
+            if (expense == null || (from < ids.length && (epochDays[from] < epochDay(expense)
+                    || (epochDays[from] == epochDay(expense) && ids[from] < expense.getId())))) {
+                newEpochDays[to] = epochDays[from];
+                newAmounts[to] = amounts[from];
+                newCategoryIds[to] = categoryIds[from];
+                newIds[to] = ids[from];
+                newVersions[to] = versions[from];
+                newDescriptions[to] = descriptions[from];
+                from++;
+                continue;
+            }
+            int categoryId = categoryIndex.computeIfAbsent(expense.getCategory(), category -> {
+                dictionary.add(category);
+                return dictionary.size() - 1;
+            });
+            if (categoryId >= MAX_CATEGORIES) {
+                return null;
+            }
+            newEpochDays[to] = epochDay(expense);
+            newAmounts[to] = toMinor(expense.getAmount());
+            newCategoryIds[to] = (short) categoryId;
+            newIds[to] = expense.getId();
+            newVersions[to] = version(expense);
+            newDescriptions[to] = expense.getDescription();
+            next++;
+        }
+        return new ExpenseSnapshot(newEpochDays, newAmounts, newCategoryIds, newIds, newVersions, newDescriptions,
+                dictionary.toArray(new String[0]));
+    }
+
+    /** Returns a snapshot without the given id, or this one when it is not present. */
+    public ExpenseSnapshot without(long id) {
+        int at = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                at = i;
+                break;
+            }
+        }
+        if (at < 0) {
+            return this;
+        }
+        return new ExpenseSnapshot(remove(epochDays, at), remove(amounts, at), remove(categoryIds, at),
+                remove(ids, at), remove(versions, at), remove(descriptions, at), categories);
+    }
+
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int epochDay(Expense expense) {
+        return expense.getDate() != null ? (int) expense.getDate().toEpochDay() : NO_DATE;
+    }
+
+    private static long version(Expense expense) {
+        return expense.getVersion() != null ? expense.getVersion() : 0L;
+    }
+
+    private static Long toMinor(double amount) {
+        double minor = amount * 100;
+        long rounded = Math.round(minor);
+        // Only exact cent values survive the round trip through amount / 100.0
+        return Double.isFinite(minor) && rounded / 100.0 == amount ? rounded : null;
+    }
+
+    private static int periodStart(SummaryPeriod period, int day) {
+        return switch (period) {
+            case DAY -> day;
+            case WEEK -> day - Math.floorMod(day + 3, 7); // date_trunc('week') starts on Monday; day 0 was a Thursday
+            case MONTH -> (int) LocalDate.ofEpochDay(day).withDayOfMonth(1).toEpochDay();
+        };
+    }
+
+    private static int periodEnd(SummaryPeriod period, int start) {
+        return switch (period) {
+            case DAY -> start + 1;
+            case WEEK -> start + 7;
+            case MONTH -> (int) LocalDate.ofEpochDay(start).plusMonths(1).toEpochDay();
+        };
+    }
+
+    private static PeriodTotal periodTotal(int start, long total, long count, long min, long max) {
+        return new SnapshotPeriodTotal(LocalDate.ofEpochDay(start).toString(), total / 100.0, count, min / 100.0, max / 100.0);
+    }
+
+    private static int[] remove(int[] values, int at) {
+        int[] copy = new int[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, copy.length - at);
+        return copy;
+    }
+
+    private static long[] remove(long[] values, int at) {
+        long[] copy = new long[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, copy.length - at);
+        return copy;
+    }
+
+    private static short[] remove(short[] values, int at) {
+        short[] copy = new short[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, copy.length - at);
+        return copy;
+    }
+
+    private static String[] remove(String[] values, int at) {
+        String[] copy = new String[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, copy.length - at);
+        return copy;
+    }
+
+    record SnapshotCategoryTotal(String category, Double total, Long count, Double minAmount, Double maxAmount) implements CategoryTotal {
+        @Override
+        public String getCategory() {
+            return category;
+        }
+
+        @Override
+        public Double getTotal() {
+            return total;
+        }
+
+        @Override
+        public Long getCount() {
+            return count;
+        }
+
+        @Override
+        public Double getMinAmount() {
+            return minAmount;
+        }
+
+        @Override
+        public Double getMaxAmount() {
+            return maxAmount;
+        }
+    }
+
+    record SnapshotPeriodTotal(String period, Double total, Long count, Double minAmount, Double maxAmount) implements PeriodTotal {
+        @Override
+        public String getPeriod() {
+            return period;
+        }
+
+        @Override
+        public Double getTotal() {
+            return total;
+        }
+
+        @Override
+        public Long getCount() {
+            return count;
+        }
+
+        @Override
+        public Double getMinAmount() {
+            return minAmount;
+        }
+
+        @Override
+        public Double getMaxAmount() {
+            return maxAmount;
+        }
+    }
+}
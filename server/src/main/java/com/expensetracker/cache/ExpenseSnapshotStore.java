@@ -0,0 +1,140 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseStreamRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lazily built {@link ExpenseSnapshot} per user, bounded by an approximate heap budget so the
+ * largest and least recently used snapshots are dropped first. Local writes are applied to the
+ * snapshot after commit; other nodes are told to drop theirs through the invalidation bus and
+ * rebuild on next read. Disabled by default.
+ */
+@Component
+public class ExpenseSnapshotStore implements CacheInvalidationBus.Listener {
+
+    static final String CACHE_NAME = "expenses:snapshot";
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseSnapshotStore.class);
+
+    private final boolean enabled;
+    private final ExpenseStreamRepository expenseStreamRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final CacheInvalidationBus invalidationBus;
+    // Empty means the user's history cannot be held in minor units; remembered so we do not rebuild on every read
+    private final Cache<Long, Optional<ExpenseSnapshot>> snapshots;
+
+    public ExpenseSnapshotStore(ExpenseStreamRepository expenseStreamRepository, PlatformTransactionManager transactionManager,
+                                CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                                @Value("${expensetracker.app.snapshotEnabled:false}") boolean enabled,
+                                @Value("${expensetracker.app.snapshotMemoryBudgetMb:64}") long memoryBudgetMb) {
+        this.enabled = enabled;
+        this.expenseStreamRepository = expenseStreamRepository;
+        // Not read-only, so rebuilds never go to a replica: nothing expires a snapshot built from one behind a write
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.invalidationBus = invalidationBus;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(memoryBudgetMb * 1024 * 1024)
+                .weigher((Long userId, Optional<ExpenseSnapshot> snapshot) ->
+                        (int) Math.min(Integer.MAX_VALUE, snapshot.map(ExpenseSnapshot::estimatedBytes).orElse(64L)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, CACHE_NAME);
+        invalidationBus.register(CACHE_NAME, this);
+    }
+
+    /** The user's snapshot, building it on first use, or null when disabled or not representable. */
+    public ExpenseSnapshot get(Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        return snapshots.get(userId, this::load).orElse(null);
+    }
+
+    public void upsertAfterCommit(Long userId, List<Expense> expenses) {
+        applyAfterCommit(userId, snapshot -> snapshot.withUpserted(expenses));
+    }
+
+    public void removeAfterCommit(Long userId, Long expenseId) {
+        applyAfterCommit(userId, snapshot -> snapshot.without(expenseId));
+    }
+
+    /**
+     * Writes are applied by id, so replaying one that a concurrent rebuild already read is harmless.
+     * A rebuild in progress for the same user holds the entry, so the update waits for it.
+     */
+    private void applyAfterCommit(Long userId, UnaryOperator<ExpenseSnapshot> change) {
+        if (!enabled) {
+            return;
+        }
+        Runnable apply = () -> {
+            snapshots.asMap().computeIfPresent(userId, (id, current) -> current.isPresent()
+                    ? Optional.ofNullable(change.apply(current.get()))
+                    : current);
+            invalidationBus.publishEvict(CACHE_NAME, userId.toString());
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    apply.run();
+                } catch (RuntimeException e) {
+                    snapshots.invalidate(userId); // Rebuilt from the database on next read
+                    logger.warn("Could not apply a committed write to the snapshot of user {}: {}", userId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private Optional<ExpenseSnapshot> load(Long userId) {
+        long started = System.nanoTime();
+        List<Expense> expenses = new ArrayList<>();
+        // Plain JDBC from a cursor, no entities or persistence context involved
+        primaryTransaction.executeWithoutResult(status ->
+                expenseStreamRepository.forEachByUser(userId, null, null, expenses::add));
+        ExpenseSnapshot snapshot = ExpenseSnapshot.of(expenses);
+        if (snapshot == null) {
+            logger.debug("Expenses for user {} cannot be held in a snapshot; reads will use the database.", userId);
+        } else {
+            logger.debug("Built expense snapshot for user {} with {} rows in {} ms.", userId, snapshot.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    /** Drops every snapshot here and on the other nodes, for changes made outside the usual write paths. */
+    public void invalidateAll() {
+        snapshots.invalidateAll();
+        invalidationBus.publishClear(CACHE_NAME);
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        snapshots.invalidate(Long.valueOf(key));
+    }
+
+    @Override
+    public void clearLocal() {
+        snapshots.invalidateAll();
+    }
+}
@@ -0,0 +1,128 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.repository.CategoryDictionary;
+import com.expensetracker.repository.projection.ExpenseView;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * A single {@link ExpenseView}: a presence byte for the nullable fields, then id and version as
+ * variable-length integers, the amount, the date as an epoch day, the category as its smallint id
+ * and the description. Usually 20 to 40 bytes, against several hundred with JDK serialization.
+ * A view whose category has no id is left to the JDK fallback codec: caching never creates categories.
+ */
+public class ExpenseViewCodec implements CacheValueCodec {
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_DESCRIPTION = 1 << 1;
+    private static final int HAS_DATE = 1 << 2;
+    private static final int HAS_CATEGORY = 1 << 3;
+    private static final int HAS_VERSION = 1 << 4;
+
+    private final CategoryDictionary categoryDictionary;
+
+    public ExpenseViewCodec(CategoryDictionary categoryDictionary) {
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    @Override
+    public byte tag() {
+        return 1;
+    }
+
+    @Override
+    public byte version() {
+        return 1;
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+        return value instanceof ExpenseView view && canEncodeView(view);
+    }
+
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+        writeView((ExpenseView) value, out);
+    }
+
+    @Override
+    public Object read(DataInputStream in) throws IOException {
+        return readView(in);
+    }
+
+    boolean canEncodeView(ExpenseView view) {
+        return view.category() == null || categoryDictionary.findId(view.category()) != null;
+    }
+
+    void writeView(ExpenseView view, DataOutputStream out) throws IOException {
+        Short categoryId = view.category() != null ? categoryDictionary.findId(view.category()) : null;
+        if (view.category() != null && categoryId == null) {
+            throw new IOException("Category has no id: " + view.category());
+        }
+        int present = (view.id() != null ? HAS_ID : 0)
+                | (view.description() != null ? HAS_DESCRIPTION : 0)
+                | (view.date() != null ? HAS_DATE : 0)
+                | (categoryId != null ? HAS_CATEGORY : 0)
+                | (view.version() != null ? HAS_VERSION : 0);
+        out.writeByte(present);
+        if (view.id() != null) {
+            writeVarLong(view.id(), out);
+        }
+        out.writeDouble(view.amount());
+        if (view.date() != null) {
+            writeVarLong(zigZag(view.date().toEpochDay()), out);
+        }
+        if (categoryId != null) {
+            out.writeShort(categoryId);
+        }
+        if (view.version() != null) {
+            writeVarLong(view.version(), out);
+        }
+        if (view.description() != null) {
+            out.writeUTF(view.description());
+        }
+    }
+
+    ExpenseView readView(DataInputStream in) throws IOException {
+        int present = in.readUnsignedByte();
+        Long id = (present & HAS_ID) != 0 ? readVarLong(in) : null;
+        double amount = in.readDouble();
+        LocalDate date = (present & HAS_DATE) != 0 ? LocalDate.ofEpochDay(unZigZag(readVarLong(in))) : null;
+        // A category created on another node since this one loaded the dictionary is looked up here
+        String category = (present & HAS_CATEGORY) != 0 ? categoryDictionary.nameOf(in.readShort()) : null;
+        Long version = (present & HAS_VERSION) != 0 ? readVarLong(in) : null;
+        String description = (present & HAS_DESCRIPTION) != 0 ? in.readUTF() : null;
+        return new ExpenseView(id, description, amount, date, category, version);
+    }
+
+    static void writeVarLong(long value, DataOutputStream out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,64 @@
+package com.expensetracker.cache;
+
+import com.expensetracker.repository.projection.ExpenseView;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** A list of {@link ExpenseView}s, as cached by the listing: the size, then each view in order. */
+public class ExpenseViewListCodec implements CacheValueCodec {
+
+    private final ExpenseViewCodec viewCodec;
+
+    public ExpenseViewListCodec(ExpenseViewCodec viewCodec) {
+        this.viewCodec = viewCodec;
+    }
+
+    @Override
+    public byte tag() {
+        return 2;
+    }
+
+    @Override
+    public byte version() {
+        return viewCodec.version(); // Only the element layout can change
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof ExpenseView view) || !viewCodec.canEncodeView(view)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+        List<?> views = (List<?>) value;
+        ExpenseViewCodec.writeVarLong(views.size(), out);
+        for (Object view : views) {
+            viewCodec.writeView((ExpenseView) view, out);
+        }
+    }
+
+    @Override
+    public Object read(DataInputStream in) throws IOException {
+        long size = ExpenseViewCodec.readVarLong(in);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Implausible list size: " + size);
+        }
+        List<ExpenseView> views = new ArrayList<>((int) Math.min(size, 1024));
+        for (long i = 0; i < size; i++) {
+            views.add(viewCodec.readView(in));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,43 @@
+package com.expensetracker.cache;
+
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+/** Fallback for any serializable value without a dedicated codec, so new caches work before they get one. */
+public class JdkCacheValueCodec implements CacheValueCodec {
+
+    private final JdkSerializationRedisSerializer serializer;
+
+    public JdkCacheValueCodec(ClassLoader classLoader) {
+        this.serializer = new JdkSerializationRedisSerializer(classLoader);
+    }
+
+    @Override
+    public byte tag() {
+        return 0;
+    }
+
+    @Override
+    public byte version() {
+        return 1;
+    }
+
+    @Override
+    public boolean canEncode(Object value) {
+        return value instanceof Serializable;
+    }
+
+    @Override
+    public void write(Object value, DataOutputStream out) throws IOException {
+        out.write(serializer.serialize(value));
+    }
+
+    @Override
+    public Object read(DataInputStream in) throws IOException {
+        return serializer.deserialize(in.readAllBytes());
+    }
+}
@@ -0,0 +1,126 @@
+package com.expensetracker.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * In-process L1 (Caffeine) in front of a shared L2 (Redis). Reads hit L1 first and fall back to L2,
+ * puts go to both. Only evictions and clears are broadcast so the other nodes drop their L1 copy;
+ * a put is a miss being filled, and the data it stands for changes only behind an evict.
+ * L1 hands out the same instances to every caller, so cached values must be treated as read-only.
+ */
+public class TwoLevelCache implements Cache, CacheInvalidationBus.Listener {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final Cache remoteCache;
+    private final CacheInvalidationBus invalidationBus;
+
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> localCache,
+                         Cache remoteCache, CacheInvalidationBus invalidationBus) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remoteCache.getNativeCache();
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, Object> getLocalCache() {
+        return localCache;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = key.toString();
+        Object local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            return new SimpleValueWrapper(local == NullValue.INSTANCE ? null : local);
+        }
+        ValueWrapper remote = remoteCache.get(key);
+        if (remote != null) {
+            localCache.put(localKey, toStoreValue(remote.get()));
+        }
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoteCache.put(key, value);
+        localCache.put(key.toString(), toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remoteCache.putIfAbsent(key, value);
+        localCache.invalidate(key.toString());
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoteCache.evict(key);
+        localCache.invalidate(key.toString());
+        invalidationBus.publishEvict(name, key.toString());
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        invalidationBus.publishClear(name);
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        localCache.invalidate(key);
+    }
+
+    @Override
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value != null ? value : NullValue.INSTANCE;
+    }
+}
@@ -0,0 +1,41 @@
+package com.expensetracker.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Share of the pool in use (0..1) and threads queued for a connection, on top of the raw
+     * hikaricp.connections.* gauges Spring Boot already publishes. Saturation near 1 with pending
+     * threads is the signal that request latency is coming from pool waits.
+     */
+    @Bean
+    public MeterBinder hikariSaturationMetrics(ObjectProvider<HikariDataSource> primaryPool) {
+        return registry -> {
+            // The primary pool, whether or not read replicas put a routing data source in front of it
+            HikariDataSource hikari = primaryPool.getIfUnique();
+            if (hikari == null) {
+                return;
+            }
+            Gauge.builder("hikaricp.connections.saturation", hikari, MetricsConfig::saturation)
+                    .description("Active connections as a fraction of the maximum pool size")
+                    .tag("pool", String.valueOf(hikari.getPoolName()))
+                    .register(registry);
+        };
+    }
+
+    private static double saturation(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null || hikari.getMaximumPoolSize() <= 0) {
+            return 0;
+        }
+        return (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+    }
+}
@@ -0,0 +1,91 @@
+package com.expensetracker.config;
+
+import com.expensetracker.repository.routing.ReadYourWrites;
+import com.expensetracker.repository.routing.ReplicaRoutingDataSource;
+import com.expensetracker.security.services.UserDetailsImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read replicas, when expensetracker.app.readReplicaUrls lists any. The primary pool is built from
+ * spring.datasource as before; each replica gets a small read-only pool with the same credentials
+ * and a short connection timeout, so a dead replica costs a second rather than the pool default.
+ */
+@Configuration
+@ConditionalOnExpression("!'${expensetracker.app.readReplicaUrls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                ReadYourWrites readYourWrites, MeterRegistry meterRegistry,
+                                @Value("${expensetracker.app.readReplicaUrls}") String replicaUrls,
+                                @Value("${expensetracker.app.readReplicaPoolSize:10}") int poolSize,
+                                @Value("${expensetracker.app.readReplicaConnectionTimeoutMs:1000}") long connectionTimeoutMs,
+                                @Value("${expensetracker.app.readReplicaMaxLagMs:2000}") long maxLagMs,
+                                @Value("${expensetracker.app.readReplicaHealthCheckMs:5000}") long healthCheckMs) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeoutMs);
+            replica.setReadOnly(true);
+            replica.setInitializationFailTimeout(-1); // Start even if a replica is down; health checks keep it out
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(name, replica);
+        }
+        routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites,
+                ReadReplicaConfig::currentUserId, meterRegistry, maxLagMs);
+        routingDataSource.startHealthChecks(healthCheckMs);
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @PreDestroy
+    public void closeReplicas() {
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return user.getId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.expensetracker.config;
+
+import com.expensetracker.service.ExpenseRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Recomputes the expense rollups from raw rows and exits, for backfills after a bulk import or a
+ * suspected drift. Run with {@code --rebuild-rollups} for all users or {@code --rebuild-rollups=<userId>}.
+ */
+@Component
+public class RollupRebuildRunner implements ApplicationRunner {
+
+    static final String OPTION = "rebuild-rollups";
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupRebuildRunner.class);
+
+    private final ExpenseRollupService rollupService;
+    private final ConfigurableApplicationContext context;
+
+    public RollupRebuildRunner(ExpenseRollupService rollupService, ConfigurableApplicationContext context) {
+        this.rollupService = rollupService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        List<String> values = args.getOptionValues(OPTION);
+        Long userId = values.isEmpty() || values.get(0).isBlank() ? null : Long.valueOf(values.get(0));
+        long started = System.nanoTime();
+        rollupService.rebuild(userId);
+        logger.info("Rollup rebuild finished in {} ms.", (System.nanoTime() - started) / 1_000_000);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
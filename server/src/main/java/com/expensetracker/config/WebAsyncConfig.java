@@ -0,0 +1,39 @@
+package com.expensetracker.config;
+
+import com.expensetracker.service.ExportLimiter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Runs streaming responses (exports) on their own small pool instead of the shared application
+ * executor and its unbounded queue. ExportLimiter admits no more exports than there are threads,
+ * so an admitted export starts at once; the queue only absorbs a slot released by a thread that
+ * has not quite finished yet. Not a bean, so Spring Boot's applicationTaskExecutor is unaffected.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ThreadPoolTaskExecutor executor;
+
+    public WebAsyncConfig(ExportLimiter exportLimiter) {
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportLimiter.getMaxConcurrent());
+        executor.setMaxPoolSize(exportLimiter.getMaxConcurrent());
+        executor.setQueueCapacity(exportLimiter.getMaxConcurrent());
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(executor);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
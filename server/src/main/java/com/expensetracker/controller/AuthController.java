@@ -3,14 +3,18 @@ package com.expensetracker.controller;
 import com.expensetracker.model.User;
 import com.expensetracker.payload.request.LoginRequest;
 import com.expensetracker.payload.request.SignupRequest;
+import com.expensetracker.payload.response.AvailabilityResponse;
 import com.expensetracker.payload.response.JwtResponse;
 import com.expensetracker.payload.response.MessageResponse;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.security.jwt.JwtUtils;
 import com.expensetracker.security.services.UserDetailsImpl;
+import com.expensetracker.service.AccountAvailabilityService;
 import jakarta.validation.Valid;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -19,6 +23,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Locale;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -30,12 +36,15 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder encoder;
     private final JwtUtils jwtUtils;
+    private final AccountAvailabilityService availabilityService;
 
-    public AuthController(AuthenticationManager authenticationManager, UserRepository userRepository, PasswordEncoder encoder, JwtUtils jwtUtils) {
+    public AuthController(AuthenticationManager authenticationManager, UserRepository userRepository, PasswordEncoder encoder, JwtUtils jwtUtils,
+                          AccountAvailabilityService availabilityService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.encoder = encoder;
         this.jwtUtils = jwtUtils;
+        this.availabilityService = availabilityService;
     }
 
     @PostMapping("/signin")
@@ -58,27 +67,49 @@ public class AuthController {
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         logger.info("Attempting to register new user: {}", signUpRequest.getUsername());
-        if (userRepository.existsByUsername(signUpRequest.getUsername())) {
-            logger.warn("Registration failed: Username {} is already taken.", signUpRequest.getUsername());
-            return ResponseEntity
-                    .badRequest()
-                    .body(new MessageResponse("Error: Username is already taken!"));
-        }
-
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            logger.warn("Registration failed: Email {} is already in use.", signUpRequest.getEmail());
-            return ResponseEntity
-                    .badRequest()
-                    .body(new MessageResponse("Error: Email is already in use!"));
-        }
-
-        // Create new user's account
+        // Create new user's account; the unique constraints on users decide whether the name and email are free
         User user = new User(signUpRequest.getUsername(),
                 signUpRequest.getEmail(),
                 encoder.encode(signUpRequest.getPassword()));
 
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String message = duplicateAccountMessage(e);
+            if (message == null) {
+                throw e;
+            }
+            logger.warn("Registration failed for {}: {}", signUpRequest.getUsername(), message);
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse(message));
+        }
+        availabilityService.recordTaken(user.getUsername(), user.getEmail());
         logger.info("User {} registered successfully.", user.getUsername());
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    @GetMapping("/availability")
+    public AvailabilityResponse checkAvailability(@RequestParam(required = false) String username,
+                                                  @RequestParam(required = false) String email) {
+        return new AvailabilityResponse(
+                username != null ? availabilityService.isUsernameAvailable(username) : null,
+                email != null ? availabilityService.isEmailAvailable(email) : null);
+    }
+
+    // Which of the users_username_key / users_email_key constraints the insert hit, as the message the form shows
+    private static String duplicateAccountMessage(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                String constraint = violation.getConstraintName().toLowerCase(Locale.ROOT);
+                if (constraint.contains("username")) {
+                    return "Error: Username is already taken!";
+                }
+                if (constraint.contains("email")) {
+                    return "Error: Email is already in use!";
+                }
+            }
+        }
+        return null;
+    }
 }
@@ -3,9 +3,24 @@ package com.expensetracker.controller;
 
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.User;
+import com.expensetracker.payload.response.BulkExpenseResponse;
+import com.expensetracker.payload.response.BulkExpenseResult;
+import com.expensetracker.payload.response.ExpensePageResponse;
+import com.expensetracker.payload.response.ExpenseSummaryResponse;
+import com.expensetracker.payload.response.RollupBucket;
+import com.expensetracker.repository.projection.ExpenseView;
 import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.ExportFormat;
+import com.expensetracker.service.ExportLimiter;
+import com.expensetracker.service.SummaryPeriod;
 import com.expensetracker.service.UserService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -16,25 +31,113 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/v1/expenses")
 @SecurityRequirement(name = "bearerAuth")
+@Timed(value = "expensetracker.controller", histogram = true)
 public class ExpenseController {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpenseController.class);
 
+    // Lets browsers keep the listing and revalidate it with If-None-Match on every request
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final ExpenseService expenseService;
     private final UserService userService;
+    private final ExportLimiter exportLimiter;
 
-    public ExpenseController(ExpenseService expenseService, UserService userService) {
+    public ExpenseController(ExpenseService expenseService, UserService userService, ExportLimiter exportLimiter) {
         this.expenseService = expenseService;
         this.userService = userService;
+        this.exportLimiter = exportLimiter;
     }
 
     @GetMapping
-    public List<Expense> getAllExpenses(@RequestParam(required = false) LocalDate startDate, @RequestParam(required = false) LocalDate endDate) {
+    public ResponseEntity<List<ExpenseView>> getAllExpenses(@RequestParam(required = false) LocalDate startDate,
+                                                            @RequestParam(required = false) LocalDate endDate,
+                                                            WebRequest request) {
         User currentUser = userService.getCurrentUser();
+        // Read the version before the data, so a concurrent write can only make the tag older than the body
+        String eTag = changeTag(currentUser);
+        if (request.checkNotModified(eTag)) {
+            logger.debug("Expenses for user {} unchanged since {}.", currentUser.getId(), eTag);
+            return null; // 304 already set; nothing is loaded or serialized
+        }
         logger.info("Fetching all expenses for user {} with startDate: {} and endDate: {}", currentUser.getId(), startDate, endDate);
-        List<Expense> expenses = expenseService.getAllExpenses(currentUser, startDate, endDate);
+        List<ExpenseView> expenses = expenseService.getAllExpenses(currentUser, startDate, endDate);
         logger.debug("Found {} expenses for user {}.", expenses.size(), currentUser.getId());
-        return expenses;
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(expenses);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<ExpensePageResponse> getExpensePage(@RequestParam(required = false) LocalDate startDate,
+                                                              @RequestParam(required = false) LocalDate endDate,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              WebRequest request) {
+        User currentUser = userService.getCurrentUser();
+        String eTag = changeTag(currentUser);
+        if (request.checkNotModified(eTag)) {
+            logger.debug("Expense page for user {} unchanged since {}.", currentUser.getId(), eTag);
+            return null;
+        }
+        logger.info("Fetching expense page for user {} with startDate: {}, endDate: {} and limit: {}", currentUser.getId(), startDate, endDate, limit);
+        ExpensePageResponse page = expenseService.getExpensePage(currentUser, startDate, endDate, cursor, limit);
+        logger.debug("Found {} expenses for user {} on this page.", page.getItems().size(), currentUser.getId());
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(page);
+    }
+
+    @GetMapping("/search")
+    public ExpensePageResponse searchExpenses(@RequestParam String q,
+                                              @RequestParam(required = false) String category,
+                                              @RequestParam(required = false) LocalDate startDate,
+                                              @RequestParam(required = false) LocalDate endDate,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit) {
+        User currentUser = userService.getCurrentUser();
+        logger.info("Searching expenses for user {} with category: {}, startDate: {}, endDate: {} and limit: {}", currentUser.getId(), category, startDate, endDate, limit);
+        ExpensePageResponse page = expenseService.searchExpenses(currentUser, q, category, startDate, endDate, cursor, limit);
+        logger.debug("Found {} matching expenses for user {} on this page.", page.getItems().size(), currentUser.getId());
+        return page;
+    }
+
+    @GetMapping("/summary")
+    public ExpenseSummaryResponse getExpenseSummary(@RequestParam(required = false) LocalDate startDate,
+                                                    @RequestParam(required = false) LocalDate endDate,
+                                                    @RequestParam(required = false) String period) {
+        User currentUser = userService.getCurrentUser();
+        SummaryPeriod summaryPeriod = SummaryPeriod.from(period);
+        logger.info("Fetching expense summary for user {} by {} with startDate: {} and endDate: {}", currentUser.getId(), summaryPeriod, startDate, endDate);
+        return expenseService.getExpenseSummary(currentUser, startDate, endDate, summaryPeriod);
+    }
+
+    @GetMapping("/rollup")
+    public List<RollupBucket> getExpenseRollup(@RequestParam(required = false) LocalDate startDate,
+                                               @RequestParam(required = false) LocalDate endDate,
+                                               @RequestParam(required = false) String period) {
+        User currentUser = userService.getCurrentUser();
+        SummaryPeriod rollupPeriod = SummaryPeriod.from(period);
+        logger.info("Fetching expense rollup for user {} by {} with startDate: {} and endDate: {}", currentUser.getId(), rollupPeriod, startDate, endDate);
+        return expenseService.getExpenseRollup(currentUser, startDate, endDate, rollupPeriod);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestParam(required = false) String format,
+                                                                @RequestParam(required = false) LocalDate startDate,
+                                                                @RequestParam(required = false) LocalDate endDate) {
+        User currentUser = userService.getCurrentUser();
+        ExportFormat exportFormat = ExportFormat.from(format);
+        logger.info("Exporting expenses as {} for user {} with startDate: {} and endDate: {}", exportFormat, currentUser.getId(), startDate, endDate);
+        // Rows are written to the response as they are read, bypassing the cache; the slot is held until the last one
+        exportLimiter.acquire();
+        StreamingResponseBody body = out -> {
+            try {
+                expenseService.exportExpenses(currentUser, startDate, endDate, exportFormat, out);
+            } finally {
+                exportLimiter.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     @PostMapping
@@ -46,6 +149,15 @@ public class ExpenseController {
         return createdExpense;
     }
 
+    @PostMapping("/bulk")
+    public BulkExpenseResponse createExpenses(@RequestBody List<Expense> expenses) {
+        logger.info("Bulk creating {} expenses.", expenses.size());
+        List<BulkExpenseResult> results = expenseService.createExpenses(expenses);
+        BulkExpenseResponse response = new BulkExpenseResponse(results);
+        logger.debug("Bulk create finished: {} created, {} failed.", response.getCreated(), response.getFailed());
+        return response;
+    }
+
     @PutMapping("/{id}")
     public Expense updateExpense(@PathVariable Long id, @RequestBody Expense expenseDetails) {
         User currentUser = userService.getCurrentUser();
@@ -62,4 +174,9 @@ public class ExpenseController {
         expenseService.deleteExpense(currentUser, id);
         logger.debug("Expense with ID {} deleted successfully for user {}.", id, currentUser.getId());
     }
+
+    // Strong tag from the user's change version; the query string is part of the URL the tag belongs to
+    private String changeTag(User user) {
+        return "\"" + user.getId() + "-" + expenseService.getChangeVersion(user) + "\"";
+    }
 }
@@ -0,0 +1,11 @@
+package com.expensetracker.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ExportBusyException extends RuntimeException {
+    public ExportBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package com.expensetracker.model;
+
+import com.expensetracker.repository.CategoryDictionary;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link Expense#getCategory()} as a category id. Built by Spring through Hibernate's bean
+ * container, so the dictionary is injected.
+ */
+@Converter
+public class CategoryConverter implements AttributeConverter<String, Short> {
+
+    private final CategoryDictionary categoryDictionary;
+
+    public CategoryConverter(CategoryDictionary categoryDictionary) {
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(String category) {
+        return categoryDictionary.idOf(category);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short categoryId) {
+        return categoryDictionary.nameOf(categoryId);
+    }
+}
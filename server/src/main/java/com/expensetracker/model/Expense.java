@@ -1,12 +1,18 @@
 
 package com.expensetracker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import java.io.Serializable;
 import java.time.LocalDate;
 
@@ -16,15 +22,23 @@ public class Expense implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_seq")
+    @SequenceGenerator(name = "expense_seq", sequenceName = "expense_seq", allocationSize = 50)
     private Long id;
     private String description;
     private double amount;
     private LocalDate date;
+
+    @Column(name = "category_id")
+    @Convert(converter = CategoryConverter.class) // Names at the edges, smallint ids in storage
     private String category;
 
-    @ManyToOne
+    @Version // Sent back on update to detect concurrent edits
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY) // Only writes touch the owner, and then only its id
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore // The owner may be a lazy reference; clients never need it
     private User user;
 
     public Expense() {
@@ -79,6 +93,14 @@ public class Expense implements Serializable {
         this.category = category;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public User getUser() {
         return user;
     }
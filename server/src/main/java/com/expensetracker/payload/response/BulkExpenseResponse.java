@@ -0,0 +1,44 @@
+package com.expensetracker.payload.response;
+
+import java.util.List;
+
+public class BulkExpenseResponse {
+    private int created;
+    private int failed;
+    private List<BulkExpenseResult> results;
+
+    public BulkExpenseResponse(List<BulkExpenseResult> results) {
+        this.results = results;
+        for (BulkExpenseResult result : results) {
+            if (result.getError() == null) {
+                created++;
+            } else {
+                failed++;
+            }
+        }
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BulkExpenseResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BulkExpenseResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,45 @@
+package com.expensetracker.payload.response;
+
+public class BulkExpenseResult {
+    private int index;
+    private Long id;
+    private String error;
+
+    public BulkExpenseResult(int index, Long id, String error) {
+        this.index = index;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BulkExpenseResult created(int index, Long id) {
+        return new BulkExpenseResult(index, id, null);
+    }
+
+    public static BulkExpenseResult failed(int index, String error) {
+        return new BulkExpenseResult(index, null, error);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,31 @@
+package com.expensetracker.payload.response;
+
+import com.expensetracker.repository.projection.ExpenseView;
+
+import java.util.List;
+
+public class ExpensePageResponse {
+    private List<ExpenseView> items;
+    private String next;
+
+    public ExpensePageResponse(List<ExpenseView> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<ExpenseView> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ExpenseView> items) {
+        this.items = items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,62 @@
+package com.expensetracker.payload.response;
+
+import com.expensetracker.repository.projection.CategoryTotal;
+import com.expensetracker.repository.projection.PeriodTotal;
+
+import java.util.List;
+
+public class ExpenseSummaryResponse {
+    private double total;
+    private long count;
+    private String period;
+    private List<CategoryTotal> byCategory;
+    private List<PeriodTotal> byPeriod;
+
+    public ExpenseSummaryResponse(double total, long count, String period, List<CategoryTotal> byCategory, List<PeriodTotal> byPeriod) {
+        this.total = total;
+        this.count = count;
+        this.period = period;
+        this.byCategory = byCategory;
+        this.byPeriod = byPeriod;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public List<CategoryTotal> getByCategory() {
+        return byCategory;
+    }
+
+    public void setByCategory(List<CategoryTotal> byCategory) {
+        this.byCategory = byCategory;
+    }
+
+    public List<PeriodTotal> getByPeriod() {
+        return byPeriod;
+    }
+
+    public void setByPeriod(List<PeriodTotal> byPeriod) {
+        this.byPeriod = byPeriod;
+    }
+}
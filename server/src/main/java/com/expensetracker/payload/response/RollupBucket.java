@@ -0,0 +1,50 @@
+package com.expensetracker.payload.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class RollupBucket {
+    private LocalDate period;
+    private String category;
+    private BigDecimal total;
+    private long count;
+
+    public RollupBucket(LocalDate period, String category, BigDecimal total, long count) {
+        this.period = period;
+        this.category = category;
+        this.total = total;
+        this.count = count;
+    }
+
+    public LocalDate getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(LocalDate period) {
+        this.period = period;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
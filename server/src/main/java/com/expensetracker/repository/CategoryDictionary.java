@@ -0,0 +1,163 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.exception.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory two-way map between category names and their smallint ids in the category table.
+ * Ids are never reassigned, so entries can be cached forever and a node only goes to the database
+ * for a name or id it has not seen yet.
+ * <p>
+ * Categories are created only by {@link #register}, which callers run before opening the transaction
+ * that writes the expenses. Creating one from inside that transaction would need a second pooled
+ * connection while the first is held, which can exhaust the pool under concurrent writes. The ids
+ * are smallints shared by all users, so each user may create at most {@code categoryMaxPerUser}
+ * categories, and no one may create more once {@code categoryMaxCount} exist.
+ */
+@Repository
+public class CategoryDictionary {
+
+    /** Rollup key for expenses without a category; the category table starts at 1. */
+    public static final short NONE = 0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, Short> ids = new ConcurrentHashMap<>();
+    private final Map<Short, String> names = new ConcurrentHashMap<>();
+
+    private final int maxPerUser;
+    private final int maxCount;
+
+    public CategoryDictionary(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${expensetracker.app.categoryMaxPerUser:100}") int maxPerUser,
+                              @Value("${expensetracker.app.categoryMaxCount:30000}") int maxCount) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxPerUser = maxPerUser;
+        this.maxCount = maxCount; // Below the 32767 a smallint sequence can reach, so the limit is an error and not an outage
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        jdbcTemplate.query("SELECT id, name FROM category", rs -> {
+            remember(rs.getShort("id"), rs.getString("name"));
+        });
+    }
+
+    /**
+     * Makes sure every name has an id, creating the missing categories on behalf of the user (null
+     * for the application itself, which has no per-user limit). Call before the writing transaction
+     * opens; see the class comment. Throws {@link InvalidRequestException} when the user or the
+     * application is out of categories.
+     */
+    public void register(Long userId, Collection<String> categoryNames) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String name : categoryNames) {
+            if (name != null && findId(name) == null) {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<String, Short> created = newTransaction.execute(status -> {
+            // Counted in the same transaction; concurrent requests can overshoot by their own few names, no more
+            if (userId != null) {
+                Integer byUser = jdbcTemplate.queryForObject("SELECT count(*) FROM category WHERE created_by = ?", Integer.class, userId);
+                if (byUser != null && byUser + missing.size() > maxPerUser) {
+                    throw new InvalidRequestException("Too many categories: at most " + maxPerUser + " may be created per user");
+                }
+            }
+            Integer total = jdbcTemplate.queryForObject("SELECT count(*) FROM category", Integer.class);
+            if (total != null && total + missing.size() > maxCount) {
+                throw new InvalidRequestException("No more categories can be created; use an existing one");
+            }
+            Map<String, Short> createdIds = new LinkedHashMap<>();
+            for (String name : missing) {
+                createdIds.put(name, create(name, userId));
+            }
+            return createdIds;
+        });
+        // Only once committed, so an id is never remembered for a row that was rolled back
+        created.forEach((name, id) -> remember(id, name));
+    }
+
+    /**
+     * The id for a name, or null for null. The name must exist, which {@link #register} ensures for
+     * anything a user sends; an unknown name here means a write path skipped registering it.
+     */
+    public Short idOf(String name) {
+        if (name == null) {
+            return null;
+        }
+        Short id = findId(name);
+        if (id == null) {
+            throw new IllegalStateException("Category was not registered before writing: " + name);
+        }
+        return id;
+    }
+
+    /** The id for an existing name, or null when no such category exists. Never creates one. */
+    public Short findId(String name) {
+        Short id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        List<Short> existing = jdbcTemplate.queryForList("SELECT id FROM category WHERE name = ?", Short.class, name);
+        if (existing.isEmpty()) {
+            return null;
+        }
+        remember(existing.get(0), name);
+        return existing.get(0);
+    }
+
+    /** Like {@link #idOf} but maps null to {@link #NONE}, for keys that cannot be null. */
+    public short keyOf(String name) {
+        Short id = idOf(name);
+        return id != null ? id : NONE;
+    }
+
+    public String nameOf(Short id) {
+        if (id == null || id == NONE) {
+            return null;
+        }
+        String name = names.get(id);
+        if (name == null) {
+            load(); // Created by another node since we last looked
+            name = names.get(id);
+            if (name == null) {
+                throw new IllegalStateException("Unknown category id: " + id);
+            }
+        }
+        return name;
+    }
+
+    private Short create(String name, Long userId) {
+        // Only insert after a miss: a conflicting insert still burns a value from the smallint sequence
+        List<Short> created = jdbcTemplate.queryForList(
+                "INSERT INTO category (name, created_by) VALUES (?, ?) ON CONFLICT (name) DO NOTHING RETURNING id", Short.class, name, userId);
+        return !created.isEmpty() ? created.get(0)
+                : jdbcTemplate.queryForObject("SELECT id FROM category WHERE name = ?", Short.class, name);
+    }
+
+    private void remember(Short id, String name) {
+        ids.putIfAbsent(name, id);
+        names.putIfAbsent(id, name);
+    }
+}
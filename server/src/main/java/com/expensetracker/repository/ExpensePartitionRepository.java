@@ -0,0 +1,101 @@
+package com.expensetracker.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL for the monthly partitions of expense (see V10): expense_yYYYYmMM for each month, plus
+ * expense_default for undated rows and months without a partition. Callers run these inside a
+ * transaction holding {@link #lockForMaintenance()}, so two nodes never race on the same month.
+ */
+@Repository
+public class ExpensePartitionRepository {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'expense_y'yyyy'm'MM");
+    private static final Pattern PARTITION_PATTERN = Pattern.compile("expense_y(\\d{4})m(\\d{2})");
+
+    // Everything but the generated search_vector, which PostgreSQL refuses as an insert target
+    private static final String COLUMNS = "id, description, amount, date, user_id, category_id, version";
+
+    // Arbitrary, shared by every node: pg_advisory_xact_lock key for partition maintenance
+    private static final long MAINTENANCE_LOCK = 0x657870656e736550L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExpensePartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static String partitionName(YearMonth month) {
+        return PARTITION_NAME.format(month);
+    }
+
+    /** Held until the surrounding transaction ends. */
+    public void lockForMaintenance() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + MAINTENANCE_LOCK + ")");
+    }
+
+    /** Months that currently have their own attached partition, oldest first. */
+    public List<YearMonth> findMonths() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'expense'::regclass ORDER BY c.relname", String.class)) {
+            Matcher matcher = PARTITION_PATTERN.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Creates the month's partition unless it exists. Rows for that month already sitting in the
+     * default partition (dated ahead of the partitions at the time) are moved into it, since
+     * PostgreSQL refuses a new partition whose range the default partition still holds rows for.
+     * Returns the number of rows moved, or -1 if the partition already existed.
+     */
+    public long createMonth(YearMonth month) {
+        String name = partitionName(month);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return -1;
+        }
+        // ISO dates from LocalDate; DDL cannot take bind parameters
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String range = "date >= DATE '" + from + "' AND date < DATE '" + to + "'";
+        jdbcTemplate.execute("LOCK TABLE expense_default IN SHARE ROW EXCLUSIVE MODE"); // No new rows for the month meanwhile
+        int moved = jdbcTemplate.update("CREATE TEMP TABLE expense_moving AS SELECT " + COLUMNS + " FROM expense_default WHERE " + range);
+        if (moved > 0) {
+            jdbcTemplate.update("DELETE FROM expense_default WHERE " + range);
+        }
+        jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF expense FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        jdbcTemplate.execute("ALTER TABLE " + name + " ADD PRIMARY KEY (id)");
+        if (moved > 0) {
+            jdbcTemplate.update("INSERT INTO expense (" + COLUMNS + ") SELECT " + COLUMNS + " FROM expense_moving");
+        }
+        jdbcTemplate.execute("DROP TABLE expense_moving");
+        return moved;
+    }
+
+    /** Owners of the rows in the month's partition, attached or not. */
+    public List<Long> findUsers(YearMonth month) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM " + partitionName(month), Long.class);
+    }
+
+    /**
+     * Detaches the month's partition from expense. The table itself is kept, under the same name,
+     * for archiving or dropping by hand; its rows no longer appear in any query on expense.
+     */
+    public void detachMonth(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE expense DETACH PARTITION " + partitionName(month));
+    }
+}
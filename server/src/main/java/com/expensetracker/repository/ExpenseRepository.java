@@ -2,16 +2,75 @@
 package com.expensetracker.repository;
 
 import com.expensetracker.model.Expense;
-import com.expensetracker.model.User;
+import com.expensetracker.repository.projection.CategoryTotal;
+import com.expensetracker.repository.projection.ExpenseView;
+import com.expensetracker.repository.projection.PeriodTotal;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
-    List<Expense> findByUser(User user);
-    List<Expense> findByUserAndDateBetween(User user, LocalDate startDate, LocalDate endDate);
-    List<Expense> findByUserAndDateAfter(User user, LocalDate date);
-    List<Expense> findByUserAndDateBefore(User user, LocalDate date);
-    
+
+    // Read model queries select expense columns only: e.user.id is the foreign key, so users is never joined.
+    String VIEW = "SELECT new com.expensetracker.repository.projection.ExpenseView(e.id, e.description, e.amount, e.date, e.category, e.version) FROM Expense e ";
+
+    // Both bounds inclusive; a null bound is open, and with no bounds undated expenses are included too.
+    @Query(VIEW + "WHERE e.user.id = :userId " +
+            "AND (:startDate IS NULL OR e.date >= :startDate) AND (:endDate IS NULL OR e.date <= :endDate)")
+    List<ExpenseView> findViews(@Param("userId") Long userId,
+                                @Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate);
+
+    @Query(VIEW + "WHERE e.id = :id AND e.user.id = :userId")
+    Optional<ExpenseView> findViewByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Keyset pages of dated expenses ordered newest first; both queries are served by idx_expense_user_date_id.
+    @Query(VIEW + "WHERE e.user.id = :userId AND e.date IS NOT NULL " +
+            "AND (:startDate IS NULL OR e.date >= :startDate) AND (:endDate IS NULL OR e.date <= :endDate) " +
+            "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseView> findFirstPage(@Param("userId") Long userId,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate,
+                                    Pageable pageable);
+
+    @Query(VIEW + "WHERE e.user.id = :userId AND e.date IS NOT NULL " +
+            "AND (:startDate IS NULL OR e.date >= :startDate) AND (:endDate IS NULL OR e.date <= :endDate) " +
+            "AND (e.date < :afterDate OR (e.date = :afterDate AND e.id < :afterId)) " +
+            "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseView> findPageAfter(@Param("userId") Long userId,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate,
+                                    @Param("afterDate") LocalDate afterDate,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+
+    // Undated expenses follow every dated one, newest id first; the same index finds them under date IS NULL.
+    @Query(VIEW + "WHERE e.user.id = :userId AND e.date IS NULL AND (:afterId IS NULL OR e.id < :afterId) " +
+            "ORDER BY e.id DESC")
+    List<ExpenseView> findUndatedPage(@Param("userId") Long userId,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
+    @Query("SELECT e.category AS category, SUM(e.amount) AS total, COUNT(e) AS count, " +
+            "MIN(e.amount) AS minAmount, MAX(e.amount) AS maxAmount FROM Expense e " +
+            "WHERE e.user.id = :userId AND (:startDate IS NULL OR e.date >= :startDate) AND (:endDate IS NULL OR e.date <= :endDate) " +
+            "GROUP BY e.category ORDER BY SUM(e.amount) DESC")
+    List<CategoryTotal> sumByCategory(@Param("userId") Long userId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
+
+    // Native because JPQL has no date_trunc; the bounds must be non-null so PostgreSQL can type them.
+    @Query(value = "SELECT to_char(date_trunc(:unit, e.date), 'YYYY-MM-DD') AS period, SUM(e.amount) AS total, " +
+            "COUNT(*) AS count, MIN(e.amount) AS \"minAmount\", MAX(e.amount) AS \"maxAmount\" FROM expense e " +
+            "WHERE e.user_id = :userId AND e.date BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<PeriodTotal> sumByPeriod(@Param("userId") Long userId,
+                                  @Param("unit") String unit,
+                                  @Param("startDate") LocalDate startDate,
+                                  @Param("endDate") LocalDate endDate);
 }
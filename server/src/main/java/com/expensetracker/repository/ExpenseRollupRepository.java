@@ -0,0 +1,123 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.payload.response.RollupBucket;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * JDBC access to expense_daily_rollup and expense_monthly_rollup. Writes must run inside the
+ * transaction that changes the underlying expense rows so the two never disagree.
+ */
+@Repository
+public class ExpenseRollupRepository {
+
+    private static final String UPSERT_DAILY = "INSERT INTO expense_daily_rollup AS r (user_id, day, category_id, total, count) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (user_id, day, category_id) " +
+            "DO UPDATE SET total = r.total + EXCLUDED.total, count = r.count + EXCLUDED.count";
+
+    private static final String UPSERT_MONTHLY = "INSERT INTO expense_monthly_rollup AS r (user_id, month, category_id, total, count) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (user_id, month, category_id) " +
+            "DO UPDATE SET total = r.total + EXCLUDED.total, count = r.count + EXCLUDED.count";
+
+    private static final String DELETE_EMPTY_DAILY = "DELETE FROM expense_daily_rollup " +
+            "WHERE user_id = ? AND day = ? AND category_id = ? AND count = 0";
+    private static final String DELETE_EMPTY_MONTHLY = "DELETE FROM expense_monthly_rollup " +
+            "WHERE user_id = ? AND month = ? AND category_id = ? AND count = 0";
+
+    // Every writer locks bucket rows in this order, so two updates moving value in opposite directions cannot deadlock
+    private static final Comparator<Delta> BY_DAY = Comparator.comparing(Delta::day).thenComparingInt(Delta::categoryId);
+    private static final Comparator<Delta> BY_MONTH = Comparator.comparing((Delta delta) -> delta.day().withDayOfMonth(1))
+            .thenComparingInt(Delta::categoryId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryDictionary categoryDictionary;
+
+    public ExpenseRollupRepository(JdbcTemplate jdbcTemplate, CategoryDictionary categoryDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    public record Delta(LocalDate day, short categoryId, BigDecimal amount, long count) {
+    }
+
+    public void apply(Long userId, List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Delta> byDay = new ArrayList<>(deltas);
+        byDay.sort(BY_DAY);
+        List<Delta> byMonth = new ArrayList<>(deltas);
+        byMonth.sort(BY_MONTH);
+        jdbcTemplate.batchUpdate(UPSERT_DAILY, rows(userId, byDay, false, false));
+        jdbcTemplate.batchUpdate(UPSERT_MONTHLY, rows(userId, byMonth, true, false));
+        // Only buckets that just lost an expense can have reached zero
+        List<Object[]> emptiedDays = rows(userId, byDay, false, true);
+        if (!emptiedDays.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_DAILY, emptiedDays);
+            jdbcTemplate.batchUpdate(DELETE_EMPTY_MONTHLY, rows(userId, byMonth, true, true));
+        }
+    }
+
+    public List<RollupBucket> findDaily(Long userId, LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query("SELECT day, category_id, total, count FROM expense_daily_rollup " +
+                        "WHERE user_id = ? AND day BETWEEN ? AND ? ORDER BY day, category_id",
+                (rs, rowNum) -> new RollupBucket(rs.getDate("day").toLocalDate(), categoryDictionary.nameOf(rs.getShort("category_id")),
+                        rs.getBigDecimal("total"), rs.getLong("count")),
+                userId, Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    /** Months starting within the bounds; callers pass whole months, since a bucket cannot be split. */
+    public List<RollupBucket> findMonthly(Long userId, LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query("SELECT month, category_id, total, count FROM expense_monthly_rollup " +
+                        "WHERE user_id = ? AND month BETWEEN ? AND ? ORDER BY month, category_id",
+                (rs, rowNum) -> new RollupBucket(rs.getDate("month").toLocalDate(), categoryDictionary.nameOf(rs.getShort("category_id")),
+                        rs.getBigDecimal("total"), rs.getLong("count")),
+                userId, Date.valueOf(startDate), Date.valueOf(endDate));
+    }
+
+    /** Drops every user's rollups for the month, once its expenses have left the table as a whole. */
+    public void deleteMonth(YearMonth month) {
+        jdbcTemplate.update("DELETE FROM expense_daily_rollup WHERE day >= ? AND day < ?",
+                Date.valueOf(month.atDay(1)), Date.valueOf(month.plusMonths(1).atDay(1)));
+        jdbcTemplate.update("DELETE FROM expense_monthly_rollup WHERE month = ?", Date.valueOf(month.atDay(1)));
+    }
+
+    /**
+     * Recomputes the rollups from the expense table, for one user or (userId null) everyone.
+     * Takes a SHARE lock on expense so no write can slip in between the delete and the re-insert.
+     */
+    public void rebuild(Long userId) {
+        jdbcTemplate.execute("LOCK TABLE expense IN SHARE MODE");
+        String userFilter = userId != null ? " AND user_id = " + userId : "";
+        jdbcTemplate.update("DELETE FROM expense_daily_rollup WHERE TRUE" + userFilter);
+        jdbcTemplate.update("DELETE FROM expense_monthly_rollup WHERE TRUE" + userFilter);
+        jdbcTemplate.update("INSERT INTO expense_daily_rollup (user_id, day, category_id, total, count) " +
+                "SELECT user_id, date, COALESCE(category_id, 0), SUM(CAST(amount AS NUMERIC(19, 4))), COUNT(*) FROM expense " +
+                "WHERE date IS NOT NULL" + userFilter + " GROUP BY user_id, date, COALESCE(category_id, 0)");
+        jdbcTemplate.update("INSERT INTO expense_monthly_rollup (user_id, month, category_id, total, count) " +
+                "SELECT user_id, CAST(date_trunc('month', day) AS DATE), category_id, SUM(total), SUM(count) FROM expense_daily_rollup " +
+                "WHERE TRUE" + userFilter + " GROUP BY user_id, CAST(date_trunc('month', day) AS DATE), category_id");
+    }
+
+    private static List<Object[]> rows(Long userId, List<Delta> deltas, boolean monthly, boolean removalsOnly) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            if (removalsOnly && delta.count() >= 0) {
+                continue;
+            }
+            Date bucket = Date.valueOf(monthly ? delta.day().withDayOfMonth(1) : delta.day());
+            rows.add(removalsOnly
+                    ? new Object[]{userId, bucket, delta.categoryId()}
+                    : new Object[]{userId, bucket, delta.categoryId(), delta.amount(), delta.count()});
+        }
+        return rows;
+    }
+}
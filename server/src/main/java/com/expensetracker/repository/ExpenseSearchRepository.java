@@ -0,0 +1,92 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.repository.projection.ExpenseView;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Ranked full-text search over a user's expense descriptions, served by idx_expense_user_search_vector,
+ * which is keyed on (user_id, search_vector) so only the user's own matches are read. Results are
+ * ordered by (rank, id) descending and paged by keyset, so later pages never return the rows before
+ * them; but every page still ranks and sorts all of the user's matches before the cut, so the cost
+ * grows with how many rows the query matches. {@code SearchQuery} keeps very short prefixes out.
+ */
+@Repository
+public class ExpenseSearchRepository {
+
+    private static final String SEARCH = "SELECT id, description, amount, date, category_id, version, ts_rank(search_vector, q) AS rank " +
+            "FROM expense, to_tsquery('simple', ?) q " +
+            "WHERE user_id = ? AND search_vector @@ q " +
+            "AND (CAST(? AS smallint) IS NULL OR category_id = ?) " +
+            "AND (CAST(? AS date) IS NULL OR date >= ?) AND (CAST(? AS date) IS NULL OR date <= ?) " +
+            "AND (CAST(? AS real) IS NULL OR (ts_rank(search_vector, q), id) < (CAST(? AS real), ?)) " +
+            "ORDER BY rank DESC, id DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryDictionary categoryDictionary;
+
+    public ExpenseSearchRepository(JdbcTemplate jdbcTemplate, CategoryDictionary categoryDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    public record SearchHit(ExpenseView expense, float rank) {
+    }
+
+    /**
+     * @param tsQuery    a tsquery in the 'simple' configuration
+     * @param categoryId restricts results to one category when not null
+     * @param afterRank  with {@code afterId}, the last hit of the previous page, or null for the first page
+     */
+    public List<SearchHit> search(Long userId, String tsQuery, Short categoryId, LocalDate startDate, LocalDate endDate,
+                                  Float afterRank, Long afterId, int limit) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SEARCH);
+            statement.setString(1, tsQuery);
+            statement.setLong(2, userId);
+            setShort(statement, 3, categoryId);
+            setShort(statement, 4, categoryId);
+            setDate(statement, 5, startDate);
+            setDate(statement, 6, startDate);
+            setDate(statement, 7, endDate);
+            setDate(statement, 8, endDate);
+            if (afterRank != null) {
+                statement.setFloat(9, afterRank);
+                statement.setFloat(10, afterRank);
+                statement.setLong(11, afterId);
+            } else {
+                statement.setNull(9, Types.REAL);
+                statement.setNull(10, Types.REAL);
+                statement.setNull(11, Types.BIGINT);
+            }
+            statement.setInt(12, limit);
+            return statement;
+        }, (rs, rowNum) -> {
+            Date date = rs.getDate("date");
+            short category = rs.getShort("category_id");
+            String categoryName = categoryDictionary.nameOf(rs.wasNull() ? null : category);
+            ExpenseView expense = new ExpenseView(rs.getLong("id"), rs.getString("description"), rs.getDouble("amount"),
+                    date != null ? date.toLocalDate() : null, categoryName, rs.getLong("version"));
+            return new SearchHit(expense, rs.getFloat("rank"));
+        });
+    }
+
+    private static void setShort(PreparedStatement statement, int index, Short value) throws SQLException {
+        if (value != null) {
+            statement.setShort(index, value);
+        } else {
+            statement.setNull(index, Types.SMALLINT);
+        }
+    }
+
+    private static void setDate(PreparedStatement statement, int index, LocalDate value) throws SQLException {
+        statement.setDate(index, value != null ? Date.valueOf(value) : null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only JDBC read of a user's expenses for exports. Rows are fetched from a server-side cursor
+ * in chunks of {@link #FETCH_SIZE} and handed out one at a time, so memory use does not grow with the
+ * size of the history. PostgreSQL only uses a cursor when auto-commit is off, so callers must run
+ * inside a transaction.
+ */
+@Repository
+public class ExpenseStreamRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_BY_USER = "SELECT id, description, amount, date, category_id, version FROM expense " +
+            "WHERE user_id = ? AND (CAST(? AS date) IS NULL OR date >= ?) AND (CAST(? AS date) IS NULL OR date <= ?) " +
+            "ORDER BY date, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryDictionary categoryDictionary;
+
+    public ExpenseStreamRepository(JdbcTemplate jdbcTemplate, CategoryDictionary categoryDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    public void forEachByUser(Long userId, LocalDate startDate, LocalDate endDate, Consumer<Expense> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BY_USER, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            Date start = startDate != null ? Date.valueOf(startDate) : null;
+            Date end = endDate != null ? Date.valueOf(endDate) : null;
+            statement.setLong(1, userId);
+            statement.setDate(2, start);
+            statement.setDate(3, start);
+            statement.setDate(4, end);
+            statement.setDate(5, end);
+            return statement;
+        }, (ResultSet resultSet) -> {
+            Date date = resultSet.getDate("date");
+            short categoryId = resultSet.getShort("category_id");
+            String category = categoryDictionary.nameOf(resultSet.wasNull() ? null : categoryId);
+            Expense expense = new Expense(
+                    resultSet.getLong("id"),
+                    resultSet.getString("description"),
+                    resultSet.getDouble("amount"),
+                    date != null ? date.toLocalDate() : null,
+                    category,
+                    null);
+            expense.setVersion(resultSet.getLong("version"));
+            consumer.accept(expense);
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Owner-scoped updates and deletes that each take one statement: the id and user_id are both in the
+ * WHERE clause, so there is no load-then-check, and the previous row comes back through RETURNING
+ * for the rollups. The owner is never set on the returned expenses.
+ */
+@Repository
+public class ExpenseWriteRepository {
+
+    // The old row is read and locked in the same statement as the update; a version mismatch still
+    // returns it, with new_version NULL, so callers can tell a conflict from a missing row.
+    private static final String UPDATE = "WITH old AS (" +
+            "SELECT id, description, amount, date, category_id, version FROM expense WHERE id = ? AND user_id = ? FOR UPDATE" +
+            "), changed AS (" +
+            "UPDATE expense e SET description = ?, amount = ?, date = ?, category_id = ?, version = e.version + 1 " +
+            "FROM old WHERE e.id = old.id AND (CAST(? AS BIGINT) IS NULL OR e.version = ?) RETURNING e.version" +
+            ") SELECT old.id, old.description, old.amount, old.date, old.category_id, old.version, changed.version AS new_version " +
+            "FROM old LEFT JOIN changed ON TRUE";
+
+    private static final String DELETE = "DELETE FROM expense WHERE id = ? AND user_id = ? " +
+            "RETURNING id, description, amount, date, category_id, version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryDictionary categoryDictionary;
+
+    public ExpenseWriteRepository(JdbcTemplate jdbcTemplate, CategoryDictionary categoryDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    /** The row before and after an update; {@code after} is null when the expected version did not match. */
+    public record ExpenseChange(Expense before, Expense after) {
+    }
+
+    /**
+     * Applies the details' description, amount, date and category to the user's expense. When the
+     * details carry a version it must match the stored one. Empty when the user has no such expense.
+     */
+    public Optional<ExpenseChange> updateByIdAndUserId(Long id, Long userId, Expense details) {
+        Short categoryId = categoryDictionary.idOf(details.getCategory());
+        Long expectedVersion = details.getVersion();
+        List<ExpenseChange> rows = jdbcTemplate.query(UPDATE, statement -> {
+            statement.setLong(1, id);
+            statement.setLong(2, userId);
+            statement.setString(3, details.getDescription());
+            statement.setDouble(4, details.getAmount());
+            statement.setDate(5, details.getDate() != null ? Date.valueOf(details.getDate()) : null);
+            if (categoryId != null) {
+                statement.setShort(6, categoryId);
+            } else {
+                statement.setNull(6, Types.SMALLINT);
+            }
+            if (expectedVersion != null) {
+                statement.setLong(7, expectedVersion);
+                statement.setLong(8, expectedVersion);
+            } else {
+                statement.setNull(7, Types.BIGINT);
+                statement.setNull(8, Types.BIGINT);
+            }
+        }, (rs, rowNum) -> {
+            Expense before = mapRow(rs);
+            long newVersion = rs.getLong("new_version");
+            if (rs.wasNull()) {
+                return new ExpenseChange(before, null);
+            }
+            Expense after = new Expense(id, details.getDescription(), details.getAmount(), details.getDate(), details.getCategory(), null);
+            after.setVersion(newVersion);
+            return new ExpenseChange(before, after);
+        });
+        return rows.stream().findFirst();
+    }
+
+    /** Deletes the user's expense and returns it as it was; empty means no row was affected. */
+    public Optional<Expense> deleteByIdAndUserId(Long id, Long userId) {
+        return jdbcTemplate.query(DELETE, (rs, rowNum) -> mapRow(rs), id, userId).stream().findFirst();
+    }
+
+    private Expense mapRow(ResultSet rs) throws SQLException {
+        Date date = rs.getDate("date");
+        short categoryId = rs.getShort("category_id");
+        String category = categoryDictionary.nameOf(rs.wasNull() ? null : categoryId);
+        Expense expense = new Expense(rs.getLong("id"), rs.getString("description"), rs.getDouble("amount"),
+                date != null ? date.toLocalDate() : null, category, null);
+        expense.setVersion(rs.getLong("version"));
+        return expense;
+    }
+}
@@ -0,0 +1,9 @@
+package com.expensetracker.repository.projection;
+
+public interface CategoryTotal {
+    String getCategory();
+    Double getTotal();
+    Long getCount();
+    Double getMinAmount();
+    Double getMaxAmount();
+}
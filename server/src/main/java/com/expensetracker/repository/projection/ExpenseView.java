@@ -0,0 +1,19 @@
+package com.expensetracker.repository.projection;
+
+import com.expensetracker.model.Expense;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Read model for an expense: just its own columns, selected with a JPQL constructor expression so
+ * the owner is never joined or loaded and nothing is attached to the persistence context. Serializes
+ * to the same JSON as {@link Expense} and is what the read caches hold.
+ */
+public record ExpenseView(Long id, String description, double amount, LocalDate date, String category, Long version) implements Serializable {
+
+    public static ExpenseView of(Expense expense) {
+        return new ExpenseView(expense.getId(), expense.getDescription(), expense.getAmount(), expense.getDate(), expense.getCategory(),
+                expense.getVersion());
+    }
+}
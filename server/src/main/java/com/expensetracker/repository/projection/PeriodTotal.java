@@ -0,0 +1,10 @@
+package com.expensetracker.repository.projection;
+
+public interface PeriodTotal {
+    // ISO date of the first day of the bucket (yyyy-MM-dd)
+    String getPeriod();
+    Double getTotal();
+    Long getCount();
+    Double getMinAmount();
+    Double getMaxAmount();
+}
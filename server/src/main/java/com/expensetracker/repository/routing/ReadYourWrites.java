@@ -0,0 +1,78 @@
+package com.expensetracker.repository.routing;
+
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Users who wrote within the last few seconds, whose read-only transactions stay on the primary
+ * so they never read back a replica that has not replayed their own write yet. Other nodes hear
+ * about each write through the invalidation bus. Does nothing unless read replicas are configured.
+ */
+@Component
+public class ReadYourWrites implements CacheInvalidationBus.Listener {
+
+    static final String BUS_NAME = "datasource:recent-writers";
+
+    private final boolean enabled;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWrites(CacheInvalidationBus invalidationBus,
+                          @Value("${expensetracker.app.readReplicaUrls:}") String replicaUrls,
+                          @Value("${expensetracker.app.readReplicaStickyMs:5000}") long stickyMs) {
+        this.enabled = !replicaUrls.isBlank();
+        this.invalidationBus = invalidationBus;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(stickyMs))
+                .build();
+        invalidationBus.register(BUS_NAME, this);
+    }
+
+    /**
+     * Starts the user's window once the surrounding transaction commits, or now when there is none.
+     * Register this before the snapshot update and the cache generation bump: after-commit hooks and
+     * bus messages keep their order, so no node rebuilds a snapshot or serves a read under the new
+     * generation from a replica behind the write.
+     */
+    public void markWriteAfterCommit(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markWrite(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markWrite(userId);
+            }
+        });
+    }
+
+    public boolean wroteRecently(Long userId) {
+        return enabled && recentWriters.getIfPresent(userId) != null;
+    }
+
+    private void markWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+        invalidationBus.publishEvict(BUS_NAME, userId.toString());
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        recentWriters.put(Long.valueOf(key), Boolean.TRUE); // The user wrote on another node
+    }
+
+    @Override
+    public void clearLocal() {
+        recentWriters.invalidateAll();
+    }
+}
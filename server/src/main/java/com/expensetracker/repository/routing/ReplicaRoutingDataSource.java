@@ -0,0 +1,185 @@
+package com.expensetracker.repository.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary connections everywhere
+ * else. Replicas are taken round robin among those that passed the last health check (reachable
+ * and not lagging more than the limit); a replica that refuses a connection is marked down at
+ * once. With no replica available, or for a user who wrote moments ago, reads stay on the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy, so the connection is only fetched once the
+ * transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Zero on a caught-up replica, or on a plain server standing in for one
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile double lagMs;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReadYourWrites readYourWrites;
+    private final Supplier<Long> currentUserId;
+    private final long maxLagMs;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter stickyReads;
+    private final Counter fallbackReads;
+    private ScheduledExecutorService healthChecks;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReadYourWrites readYourWrites,
+                                    Supplier<Long> currentUserId, MeterRegistry meterRegistry, long maxLagMs) {
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.currentUserId = currentUserId;
+        this.maxLagMs = maxLagMs;
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            Gauge.builder("db.replica.lag", replica, r -> r.lagMs)
+                    .description("Replication lag seen by the last health check, in milliseconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica is taking reads")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        this.replicaReads = readCounter(meterRegistry, "replica", "read_only");
+        this.stickyReads = readCounter(meterRegistry, "primary", "recent_write");
+        this.fallbackReads = readCounter(meterRegistry, "primary", "no_replica");
+    }
+
+    public void startHealthChecks(long intervalMs) {
+        healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecks.scheduleWithFixedDelay(this::checkHealth, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        Long userId = currentUserId.get();
+        if (userId != null && readYourWrites.wroteRecently(userId)) {
+            stickyReads.increment();
+            return primary.getConnection();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return primary.getConnection();
+    }
+
+    /** Explicit credentials only make sense for the primary; replica pools use their own. */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /** Probes every replica; exposed for tests, normally run on the health check thread. */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    rs.next();
+                    replica.lagMs = rs.getDouble(1);
+                }
+                if (replica.lagMs > maxLagMs) {
+                    markDown(replica, "lagging " + Math.round(replica.lagMs) + " ms");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    logger.info("Read replica {} is back in rotation.", replica.name);
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    public boolean isHealthy(String replicaName) {
+        return replicas.stream().anyMatch(replica -> replica.name.equals(replicaName) && replica.healthy);
+    }
+
+    @Override
+    public void close() {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close read replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Read replica {} taken out of rotation: {}", replica.name, reason);
+        }
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("db.readonly.connections")
+                .description("Connections handed to read-only transactions, by where they went and why")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -2,8 +2,13 @@ package com.expensetracker.security;
 
 import com.expensetracker.security.jwt.AuthEntryPointJwt;
 import com.expensetracker.security.jwt.AuthTokenFilter;
+import com.expensetracker.security.ratelimit.RateLimitFilter;
 import com.expensetracker.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -30,6 +35,9 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -37,14 +45,32 @@ public class WebSecurityConfig {
 
     
 
+    // Only runs inside the security chain, after the JWT filter, not again as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt at the configured cost, run on its own bounded pool. Stored hashes below the cost are
+     * upgraded on the user's next successful sign-in (see UserDetailsServiceImpl.updatePassword).
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${expensetracker.app.passwordHashCost:10}") int cost,
+                                           @Value("${expensetracker.app.passwordHashThreads:0}") int threads,
+                                           @Value("${expensetracker.app.passwordHashQueueSize:64}") int queueSize,
+                                           @Value("${expensetracker.app.passwordHashTimeoutMs:2000}") long timeoutMs) {
+        // Half the cores by default, so hashing can never starve the rest of the API
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(cost), poolSize, queueSize, timeoutMs, meterRegistry);
     }
 
     @Bean
@@ -71,12 +97,15 @@ public class WebSecurityConfig {
                         auth.requestMatchers("/api/v1/auth/**").permitAll()
                                 .requestMatchers("/api/test/**").permitAll()
                                 .requestMatchers("/v3/api-docs/**", "/swagger-ui/**").permitAll()
+                                // Only matches on management.server.port; the public port serves no actuator endpoints
+                                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                                 .anyRequest().authenticated()
                 );
 
         
 
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter, AuthTokenFilter.class);
 
         return http.build();
     }
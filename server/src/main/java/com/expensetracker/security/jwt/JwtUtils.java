@@ -1,67 +1,203 @@
 package com.expensetracker.security.jwt;
 
 import com.expensetracker.security.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String EMAIL_CLAIM = "email";
+
     @Value("${expensetracker.app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${expensetracker.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${expensetracker.app.jwtCacheMaxSize:10000}")
+    private long jwtCacheMaxSize;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private SecretKey key;
+    private JwtParser parser;
+    private Timer cachedValidationTimer;
+    private Timer verifiedValidationTimer;
+    private Timer failedValidationTimer;
+
+    // Digest of a recently verified token -> its claims, kept until the token itself expires
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(key).build();
+        if (meterRegistry == null) {
+            meterRegistry = Metrics.globalRegistry;
+        }
+        cachedValidationTimer = validationTimer("cached");
+        verifiedValidationTimer = validationTimer("verified");
+        failedValidationTimer = validationTimer("failed");
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration() != null
+                                ? claims.getExpiration().getTime() - System.currentTimeMillis()
+                                : jwtExpirationMs;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(remainingMs, jwtExpirationMs)));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
 
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
+        Date now = new Date();
         return Jwts.builder()
                 .subject(userPrincipal.getUsername())
-                .issuedAt(new Date())
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(key)
                 .compact();
     }
 
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().verifyWith(key()).build()
-                .parseSignedClaims(token).getPayload().getSubject();
-    }
-
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verifies the token's signature and expiry once and returns its claims, or null if the token is not valid.
+     */
+    public Claims parseJwtToken(String authToken) {
+        long start = System.nanoTime();
+        Timer timer = failedValidationTimer;
         try {
-            Jwts.parser().verifyWith(key()).build().parse(authToken);
-            return true;
+            if (authToken == null || authToken.isEmpty()) {
+                logger.error("JWT claims string is empty");
+                countFailure("empty");
+                return null;
+            }
+            String digest = digest(authToken);
+            Claims claims = verifiedTokens.getIfPresent(digest);
+            if (claims != null) {
+                timer = cachedValidationTimer;
+                return claims;
+            }
+            claims = parser.parseSignedClaims(authToken).getPayload();
+            verifiedTokens.put(digest, claims);
+            timer = verifiedValidationTimer;
+            return claims;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
+            countFailure("malformed");
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
+            countFailure("expired");
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+            countFailure("unsupported");
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
+            countFailure("signature");
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+            countFailure("empty");
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
-        return false;
+        return null;
+    }
+
+    private Timer validationTimer(String result) {
+        return Timer.builder("jwt.validation")
+                .description("Time to validate a bearer token")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void countFailure(String reason) {
+        Counter.builder("jwt.validation.failures")
+                .description("Rejected bearer tokens")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Builds the principal straight from the token so authenticated requests need no user lookup.
+     * Returns null for tokens issued before the id claim existed; callers fall back to loading the user.
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        if (userId == null) {
+            return null;
+        }
+        return new UserDetailsImpl(userId, claims.getSubject(), claims.get(EMAIL_CLAIM, String.class), null);
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        Claims claims = parseJwtToken(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseJwtToken(authToken) != null;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
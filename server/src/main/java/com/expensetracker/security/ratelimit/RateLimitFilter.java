@@ -0,0 +1,140 @@
+package com.expensetracker.security.ratelimit;
+
+import com.expensetracker.security.services.UserDetailsImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control in front of the endpoints that reach the database: expenses, sign-in, and
+ * the account availability check, which would otherwise make account enumeration cheap. Overload
+ * is checked first and answered with 503: too many requests already in flight here, or too many
+ * threads already waiting for a pooled connection, where admitting more would only lengthen
+ * everyone's wait. Then each client spends a token from its per-address bucket and, once
+ * authenticated, its per-user bucket; an empty bucket is answered with 429. Both carry
+ * Retry-After. Runs after {@code AuthTokenFilter} so the user is known.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String EXPENSES_PATH = "/api/v1/expenses";
+    private static final String SIGNIN_PATH = "/api/v1/auth/signin";
+    private static final String AVAILABILITY_PATH = "/api/v1/auth/availability";
+    private static final long OVERLOAD_RETRY_AFTER_SECONDS = 1;
+
+    private final boolean enabled;
+    private final StripedTokenBuckets userBuckets;
+    private final StripedTokenBuckets addressBuckets;
+    private final StripedTokenBuckets signinBuckets;
+    private final int maxPendingConnections;
+    private final int maxInFlight;
+    private final HikariDataSource pool;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(ObjectProvider<HikariDataSource> primaryPool, MeterRegistry meterRegistry,
+                           @Value("${expensetracker.app.rateLimitEnabled:true}") boolean enabled,
+                           @Value("${expensetracker.app.rateLimitStripes:65536}") int stripes,
+                           @Value("${expensetracker.app.rateLimitUserBurst:100}") int userBurst,
+                           @Value("${expensetracker.app.rateLimitUserPerSecond:50}") int userPerSecond,
+                           @Value("${expensetracker.app.rateLimitAddressBurst:200}") int addressBurst,
+                           @Value("${expensetracker.app.rateLimitAddressPerSecond:100}") int addressPerSecond,
+                           @Value("${expensetracker.app.rateLimitSigninBurst:10}") int signinBurst,
+                           @Value("${expensetracker.app.rateLimitSigninPerSecond:1}") int signinPerSecond,
+                           @Value("${expensetracker.app.shedPendingConnections:10}") int maxPendingConnections,
+                           @Value("${expensetracker.app.shedMaxInFlight:200}") int maxInFlight) {
+        this.enabled = enabled;
+        this.userBuckets = new StripedTokenBuckets(userBurst, userPerSecond, stripes);
+        this.addressBuckets = new StripedTokenBuckets(addressBurst, addressPerSecond, stripes);
+        this.signinBuckets = new StripedTokenBuckets(signinBurst, signinPerSecond, stripes);
+        this.maxPendingConnections = maxPendingConnections;
+        this.maxInFlight = maxInFlight;
+        this.pool = primaryPool.getIfUnique(); // Writes and sticky reads always land here
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith(EXPENSES_PATH) && !path.equals(SIGNIN_PATH) && !path.equals(AVAILABILITY_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, OVERLOAD_RETRY_AFTER_SECONDS, "in_flight");
+            return;
+        }
+        try {
+            if (connectionWaitersOverLimit()) {
+                reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, OVERLOAD_RETRY_AFTER_SECONDS, "pool");
+                return;
+            }
+            boolean signin = request.getRequestURI().endsWith(SIGNIN_PATH);
+            // Client addresses as the container sees them; configure server.forward-headers-strategy behind a proxy
+            long waitMs = (signin ? signinBuckets : addressBuckets).tryAcquire(request.getRemoteAddr());
+            if (waitMs == 0 && !signin) {
+                Long userId = currentUserId();
+                if (userId != null) {
+                    waitMs = userBuckets.tryAcquire(userId);
+                }
+            }
+            if (waitMs > 0) {
+                reject(response, 429, (waitMs + 999) / 1000, signin ? "signin" : "client");
+                return;
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private boolean connectionWaitersOverLimit() {
+        HikariPoolMXBean poolBean = pool != null ? pool.getHikariPoolMXBean() : null;
+        return poolBean != null && poolBean.getThreadsAwaitingConnection() >= maxPendingConnections;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, int status, long retryAfterSeconds, String reason) throws IOException {
+        Counter.builder("expensetracker.requests.rejected")
+                .description("Requests turned away by rate limiting or load shedding")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        logger.debug("Rejected request with {} ({}), retry after {} s.", status, reason, retryAfterSeconds);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.sendError(status, status == 429 ? "Error: Too many requests" : "Error: Service overloaded");
+    }
+}
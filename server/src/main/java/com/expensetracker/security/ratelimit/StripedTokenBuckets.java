@@ -0,0 +1,72 @@
+package com.expensetracker.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for an open set of keys (user ids, client addresses) in a fixed number of
+ * stripes. A key hashes to one stripe and keys that collide share it, so memory stays constant
+ * however many keys an attacker invents, at the cost of the occasional shared budget. Each stripe
+ * is a single long updated by compare-and-set: refill time in the upper 40 bits, tokens in
+ * thousandths in the lower 24.
+ */
+public class StripedTokenBuckets {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+    private final long capacityMilli;
+    private final long refillPerSecond;
+    private final LongSupplier clockMs;
+    private final long origin;
+
+    public StripedTokenBuckets(int capacity, int refillPerSecond, int stripes) {
+        this(capacity, refillPerSecond, stripes, System::currentTimeMillis);
+    }
+
+    public StripedTokenBuckets(int capacity, int refillPerSecond, int stripes, LongSupplier clockMs) {
+        if (capacity < 1 || capacity * MILLI > TOKEN_MASK || refillPerSecond < 1) {
+            throw new IllegalArgumentException("Bucket capacity must be 1.." + TOKEN_MASK / MILLI + " and refill at least 1 per second");
+        }
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1; // Next power of two
+        this.stripes = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.capacityMilli = capacity * MILLI;
+        this.refillPerSecond = refillPerSecond; // Thousandths of a token per millisecond
+        this.clockMs = clockMs;
+        this.origin = clockMs.getAsLong() - 1; // Keeps a used stripe's time non-zero; zero means untouched
+    }
+
+    /** Takes one token for the key. Returns 0 when granted, otherwise the milliseconds until one is available. */
+    public long tryAcquire(Object key) {
+        int index = spread(key.hashCode()) & mask;
+        long now = clockMs.getAsLong() - origin;
+        while (true) {
+            long current = stripes.get(index);
+            long tokens = current == 0 ? capacityMilli : refill(current, now);
+            if (tokens < MILLI) {
+                return Math.max(1, (MILLI - tokens + refillPerSecond - 1) / refillPerSecond);
+            }
+            long next = (now << TOKEN_BITS) | (tokens - MILLI);
+            if (stripes.compareAndSet(index, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private long refill(long state, long now) {
+        long tokens = state & TOKEN_MASK;
+        long elapsed = Math.max(0, now - (state >>> TOKEN_BITS)); // A clock step backwards refills nothing
+        long fullAfter = (capacityMilli - tokens) / refillPerSecond + 1;
+        return elapsed >= fullAfter ? capacityMilli : Math.min(capacityMilli, tokens + elapsed * refillPerSecond);
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x45d9f3b;
+        return hash ^ (hash >>> 16);
+    }
+}
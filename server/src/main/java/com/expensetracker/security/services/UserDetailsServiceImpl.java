@@ -3,6 +3,7 @@ package com.expensetracker.security.services;
 import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,7 +13,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -23,6 +24,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     }
 
 
+    // Deliberately not read-only, so it stays on the primary: the account may have been created moments
+    // ago, before any replica replayed it, and nobody's id is known yet to make the read sticky
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String identifier) throws UsernameNotFoundException {
@@ -41,4 +44,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
+
+    /**
+     * Called by the authentication provider after a successful sign-in whose stored hash is below
+     * the configured BCrypt cost, with the password re-encoded at that cost.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl details = (UserDetailsImpl) user;
+        userRepository.updatePassword(details.getId(), newPassword);
+        return new UserDetailsImpl(details.getId(), details.getUsername(), details.getEmail(), newPassword);
+    }
 }
@@ -0,0 +1,114 @@
+package com.expensetracker.service;
+
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.expensetracker.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Answers "is this username / email free?" for the sign-up form. A Bloom filter of every taken
+ * name, loaded at startup and added to on each sign-up (on this node directly, on the others
+ * through the invalidation bus), says "free" without touching the database for almost every
+ * name nobody has. Only a possible hit is confirmed against the database, so false positives
+ * cost a query, never a wrong answer. Sign-up itself still relies on the unique constraints.
+ */
+@Service
+public class AccountAvailabilityService implements CacheInvalidationBus.Listener {
+
+    static final String BUS_NAME = "users:taken";
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountAvailabilityService.class);
+
+    private static final String USERNAME = "u:";
+    private static final String EMAIL = "e:";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final BloomFilter taken;
+    private final Counter answeredFromFilter;
+    private final Counter answeredFromDatabase;
+    private volatile boolean seeded;
+
+    public AccountAvailabilityService(UserRepository userRepository, JdbcTemplate jdbcTemplate,
+                                      CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry,
+                                      @Value("${expensetracker.app.availabilityExpectedAccounts:1000000}") long expectedAccounts) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        this.taken = new BloomFilter(expectedAccounts * 2, 0.01); // Usernames and emails share the filter
+        this.answeredFromFilter = availabilityCounter(meterRegistry, "filter");
+        this.answeredFromDatabase = availabilityCounter(meterRegistry, "database");
+        invalidationBus.register(BUS_NAME, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long started = System.nanoTime();
+        long[] count = {0};
+        jdbcTemplate.query("SELECT username, email FROM users", rs -> {
+            taken.add(USERNAME + rs.getString(1));
+            taken.add(EMAIL + rs.getString(2));
+            count[0]++;
+        });
+        seeded = true; // Until now every check went to the database
+        logger.info("Seeded availability filter with {} accounts ({} KB) in {} ms.", count[0], taken.sizeInBytes() / 1024,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isUsernameAvailable(String username) {
+        if (definitelyFree(USERNAME + username)) {
+            return true;
+        }
+        return !userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        if (definitelyFree(EMAIL + email)) {
+            return true;
+        }
+        return !userRepository.existsByEmail(email);
+    }
+
+    /** Called once a sign-up has committed. */
+    public void recordTaken(String username, String email) {
+        taken.add(USERNAME + username);
+        taken.add(EMAIL + email);
+        invalidationBus.publishEvict(BUS_NAME, USERNAME + username);
+        invalidationBus.publishEvict(BUS_NAME, EMAIL + email);
+    }
+
+    private boolean definitelyFree(String key) {
+        if (seeded && !taken.mightContain(key)) {
+            answeredFromFilter.increment();
+            return true;
+        }
+        answeredFromDatabase.increment();
+        return false;
+    }
+
+    /** Another node signed someone up: the name is no longer free here either. */
+    @Override
+    public void evictLocal(String key) {
+        taken.add(key);
+    }
+
+    @Override
+    public void clearLocal() {
+        // Nothing to do: a Bloom filter cannot forget, and names are never released
+    }
+
+    private static Counter availabilityCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("expensetracker.accounts.availability.checks")
+                .description("Username and email availability checks, by what answered them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.expensetracker.service;
+
+import com.expensetracker.cache.ExpenseCacheGenerations;
+import com.expensetracker.cache.ExpenseSnapshotStore;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.routing.ReadYourWrites;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Inserts new expenses together with everything that has to move with them: rollups in the same
+ * transaction, snapshot and cache generations after commit. Rows may belong to different users;
+ * the follow-up work is done once per user rather than once per row.
+ */
+@Service
+public class ExpenseBatchWriter {
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseRollupService rollupService;
+    private final ExpenseSnapshotStore snapshotStore;
+    private final ExpenseCacheGenerations cacheGenerations;
+    private final ReadYourWrites readYourWrites;
+
+    public ExpenseBatchWriter(ExpenseRepository expenseRepository, ExpenseRollupService rollupService,
+                              ExpenseSnapshotStore snapshotStore, ExpenseCacheGenerations cacheGenerations,
+                              ReadYourWrites readYourWrites) {
+        this.expenseRepository = expenseRepository;
+        this.rollupService = rollupService;
+        this.snapshotStore = snapshotStore;
+        this.cacheGenerations = cacheGenerations;
+        this.readYourWrites = readYourWrites;
+    }
+
+    /** Saves the expenses, which must already carry their user and no id, and returns them in order. */
+    @Transactional
+    public List<Expense> insert(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return expenses;
+        }
+        // Sequence ids plus hibernate.jdbc.batch_size turn this into batched INSERTs at flush
+        List<Expense> saved = expenseRepository.saveAll(expenses);
+        Map<Long, List<Expense>> byUser = new LinkedHashMap<>();
+        for (Expense expense : saved) {
+            byUser.computeIfAbsent(expense.getUser().getId(), id -> new ArrayList<>()).add(expense);
+        }
+        byUser.forEach((userId, created) -> {
+            rollupService.recordCreated(userId, created);
+            readYourWrites.markWriteAfterCommit(userId); // Before the snapshot evict, so peers rebuild it from the primary
+            snapshotStore.upsertAfterCommit(userId, created);
+            cacheGenerations.bumpAfterCommit(userId); // Only this user's cached lists go stale
+        });
+        return saved;
+    }
+
+    /**
+     * Like {@link #insert(List)}, but sets {@code committed} once the transaction has committed, even
+     * when after-commit work then throws. A caller that gets an exception can tell whether the rows
+     * were written and must not be inserted again.
+     */
+    @Transactional
+    public List<Expense> insert(List<Expense> expenses, AtomicBoolean committed) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                committed.set(status == STATUS_COMMITTED);
+            }
+        });
+        return insert(expenses);
+    }
+}
@@ -0,0 +1,240 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit for single expense creates. Concurrent callers are queued and a writer thread
+ * saves whatever has arrived within the delay bound, up to the batch limit, in one transaction,
+ * so a burst of creates costs one commit instead of one each. Each caller's future completes with
+ * its own saved row; if a batch fails, its rows are retried one by one so only the offending
+ * caller sees the error. When the queue is full, callers fall back to writing directly.
+ * Disabled by default.
+ */
+@Component
+public class ExpenseCreateCoalescer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseCreateCoalescer.class);
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private record Pending(Expense expense, CompletableFuture<Expense> result, long enqueuedNanos) {
+    }
+
+    private final ExpenseBatchWriter batchWriter;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final int writers;
+    private final BlockingQueue<Pending> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer queueWait;
+    private final Counter rejected;
+    private final Counter splitBatches;
+    private volatile boolean running;
+    private ExecutorService executor;
+
+    public ExpenseCreateCoalescer(ExpenseBatchWriter batchWriter, MeterRegistry meterRegistry,
+                                  @Value("${expensetracker.app.createCoalescingEnabled:false}") boolean enabled,
+                                  @Value("${expensetracker.app.createCoalescingMaxBatch:50}") int maxBatch,
+                                  @Value("${expensetracker.app.createCoalescingMaxDelayMs:5}") long maxDelayMs,
+                                  @Value("${expensetracker.app.createCoalescingQueueSize:2000}") int queueSize,
+                                  @Value("${expensetracker.app.createCoalescingWriters:2}") int writers) {
+        this.batchWriter = batchWriter;
+        this.enabled = enabled;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.writers = Math.max(1, writers);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.batchSizes = DistributionSummary.builder("expensetracker.expenses.create.batch.size")
+                .description("Expenses written per group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("expensetracker.expenses.create.batch.wait")
+                .description("Time a create spent queued before its batch was written")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("expensetracker.expenses.create.batch.rejected")
+                .description("Creates written directly because the coalescing queue was full")
+                .register(meterRegistry);
+        this.splitBatches = Counter.builder("expensetracker.expenses.create.batch.split")
+                .description("Batches that failed and were retried row by row")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a new expense, which must already carry its user, for the next group commit. Returns
+     * null when coalescing is off or the queue is full; the caller then writes the row itself.
+     */
+    public CompletableFuture<Expense> submit(Expense expense) {
+        if (!running) {
+            return null;
+        }
+        Pending pending = new Pending(expense, new CompletableFuture<>(), System.nanoTime());
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            return null;
+        }
+        return pending.result();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(writers, runnable -> {
+            Thread thread = new Thread(runnable, "expense-create-coalescer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        for (int i = 0; i < writers; i++) {
+            executor.execute(this::runWriter);
+        }
+        logger.info("Expense create coalescing started ({} writers, batches of up to {} within {} ms).",
+                writers, maxBatch, TimeUnit.NANOSECONDS.toMillis(maxDelayNanos));
+    }
+
+    @Override
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        running = false; // Writers finish what is queued, then exit
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Expense create coalescer writers did not finish within 10 seconds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+        // Anything that slipped in after the writers saw the queue empty
+        List<Pending> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            flush(leftover);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runWriter() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /** Waits for a first create, then gathers more until the batch is full or the oldest has waited long enough. */
+    private void collect(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        // The bound runs from when the oldest caller queued, so time spent behind a busy writer counts
+        long deadline = first.enqueuedNanos() + maxDelayNanos;
+        while (batch.size() < maxBatch) {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatch || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        long now = System.nanoTime();
+        List<Expense> expenses = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            queueWait.record(now - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+            expenses.add(pending.expense());
+        }
+        AtomicBoolean committed = new AtomicBoolean();
+        try {
+            List<Expense> saved = batchWriter.insert(expenses, committed);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (committed.get()) {
+                // Only after-commit work failed; the rows are written and writing them again would duplicate them
+                logger.warn("Group commit of {} expenses succeeded but its after-commit work failed: {}", batch.size(), e.getMessage());
+                for (Pending pending : batch) {
+                    pending.result().complete(pending.expense());
+                }
+            } else if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+            } else {
+                splitBatches.increment();
+                logger.warn("Group commit of {} expenses failed, retrying them one by one: {}", batch.size(), e.getMessage());
+                for (Pending pending : batch) {
+                    writeAlone(pending);
+                }
+            }
+        } finally {
+            for (Pending pending : batch) {
+                // Errors other than RuntimeException must not leave a caller waiting forever
+                pending.result().completeExceptionally(new IllegalStateException("Expense create was not written"));
+            }
+        }
+    }
+
+    private void writeAlone(Pending pending) {
+        Expense expense = pending.expense();
+        // The rolled back attempt assigned these; a fresh persist needs them cleared again
+        expense.setId(null);
+        expense.setVersion(null);
+        AtomicBoolean committed = new AtomicBoolean();
+        try {
+            pending.result().complete(batchWriter.insert(List.of(expense), committed).get(0));
+        } catch (RuntimeException e) {
+            if (committed.get()) {
+                pending.result().complete(expense);
+            } else {
+                pending.result().completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidCursorException;
+import com.expensetracker.repository.projection.ExpenseView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paging through a user's expenses ordered by (date, id) descending, with
+ * undated expenses last; a null date places the cursor among them. Encoded as URL-safe base64 so clients treat it as a token rather than something to build themselves.
+ */
+public record ExpenseCursor(LocalDate date, Long id) {
+
+    public static ExpenseCursor of(ExpenseView expense) {
+        return new ExpenseCursor(expense.date(), expense.id());
+    }
+
+    public String encode() {
+        String raw = (date != null ? date.toString() : "") + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ExpenseCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            LocalDate date = separator > 0 ? LocalDate.parse(raw.substring(0, separator)) : null;
+            return new ExpenseCursor(date, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
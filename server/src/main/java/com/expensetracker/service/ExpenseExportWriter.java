@@ -0,0 +1,77 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes expenses one row at a time in the requested format. Nothing is retained between rows.
+ */
+public class ExpenseExportWriter {
+
+    private static final String CSV_HEADER = "id,date,description,amount,category";
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final JsonGenerator jsonGenerator;
+
+    public ExpenseExportWriter(ExportFormat format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.NDJSON) {
+            this.jsonGenerator = objectMapper.getFactory().createGenerator(writer);
+            this.jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            this.jsonGenerator = null;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+    }
+
+    public void write(Expense expense) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                jsonGenerator.writeObject(expense);
+                jsonGenerator.writeRaw('\n');
+            } else {
+                writer.write(String.valueOf(expense.getId()));
+                writer.write(',');
+                writer.write(expense.getDate() != null ? expense.getDate().toString() : "");
+                writer.write(',');
+                writer.write(csvField(expense.getDescription()));
+                writer.write(',');
+                writer.write(Double.toString(expense.getAmount()));
+                writer.write(',');
+                writer.write(csvField(expense.getCategory()));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void finish() throws IOException {
+        if (jsonGenerator != null) {
+            jsonGenerator.flush();
+        }
+        writer.flush();
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
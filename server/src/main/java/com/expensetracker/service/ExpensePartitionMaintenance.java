@@ -0,0 +1,118 @@
+package com.expensetracker.service;
+
+import com.expensetracker.cache.ExpenseCacheGenerations;
+import com.expensetracker.cache.ExpenseSnapshotStore;
+import com.expensetracker.repository.ExpensePartitionRepository;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Keeps the monthly expense partitions ahead of the calendar: at startup and once a day, the
+ * current month and the next {@code partitionMonthsAhead} get their partitions if they lack one.
+ * With {@code partitionRetentionMonths} set, months older than that are detached, and everything
+ * derived from their rows goes with them: their rollups are deleted in the same transaction, and
+ * their owners' snapshots and cache generations are dropped and bumped after commit, so cached
+ * lists and ETags stop vouching for them. The single-expense cache is keyed by id alone, so it is
+ * cleared outright, on every node. Every node runs this; the advisory lock makes the others
+ * wait and then find nothing left to do.
+ */
+@Component
+public class ExpensePartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpensePartitionMaintenance.class);
+
+    private final ExpensePartitionRepository partitionRepository;
+    private final ExpenseRollupRepository rollupRepository;
+    private final ExpenseSnapshotStore snapshotStore;
+    private final ExpenseCacheGenerations cacheGenerations;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transaction;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public ExpensePartitionMaintenance(ExpensePartitionRepository partitionRepository, ExpenseRollupRepository rollupRepository,
+                                       ExpenseSnapshotStore snapshotStore, ExpenseCacheGenerations cacheGenerations,
+                                       CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                                       @Value("${expensetracker.app.partitionMonthsAhead:3}") int monthsAhead,
+                                       @Value("${expensetracker.app.partitionRetentionMonths:0}") int retentionMonths) {
+        this.partitionRepository = partitionRepository;
+        this.rollupRepository = rollupRepository;
+        this.snapshotStore = snapshotStore;
+        this.cacheGenerations = cacheGenerations;
+        this.cacheManager = cacheManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain(YearMonth.now());
+    }
+
+    @Scheduled(cron = "${expensetracker.app.partitionMaintenanceCron:0 15 3 * * *}")
+    public void onSchedule() {
+        maintain(YearMonth.now());
+    }
+
+    public void maintain(YearMonth current) {
+        Set<Long> affectedUsers = new LinkedHashSet<>();
+        Set<YearMonth> detached = new LinkedHashSet<>();
+        transaction.executeWithoutResult(status -> {
+            partitionRepository.lockForMaintenance();
+            for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+                long moved = partitionRepository.createMonth(month);
+                if (moved >= 0) {
+                    logger.info("Created expense partition {}, moving {} rows out of the default partition.",
+                            ExpensePartitionRepository.partitionName(month), moved);
+                }
+            }
+            if (retentionMonths > 0) {
+                YearMonth oldestKept = current.minusMonths(retentionMonths);
+                for (YearMonth month : partitionRepository.findMonths()) {
+                    if (month.isBefore(oldestKept)) {
+                        // Detached first: its lock holds off writers until commit, so no rollup change slips in between
+                        partitionRepository.detachMonth(month);
+                        affectedUsers.addAll(partitionRepository.findUsers(month));
+                        rollupRepository.deleteMonth(month);
+                        detached.add(month);
+                    }
+                }
+            }
+        });
+        if (detached.isEmpty()) {
+            return;
+        }
+        snapshotStore.invalidateAll(); // Snapshots still hold the detached rows
+        for (Long userId : affectedUsers) {
+            try {
+                cacheGenerations.bump(userId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not bump the cache generation of user {} after detaching: {}", userId, e.getMessage());
+            }
+        }
+        try {
+            Cache expenses = cacheManager.getCache("expense");
+            if (expenses != null) {
+                expenses.clear(); // Broadcast to the other nodes' near caches too
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not clear the expense cache after detaching: {}", e.getMessage());
+        }
+        logger.info("Detached expense partitions for {} ({} users affected); their tables are kept.", detached, affectedUsers.size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidRequestException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.response.RollupBucket;
+import com.expensetracker.repository.CategoryDictionary;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import com.expensetracker.repository.ExpenseRollupRepository.Delta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the daily and monthly rollups in step with expense writes. Every method that changes
+ * rollups joins the caller's transaction, so a failed expense write never leaves a bucket behind.
+ */
+@Service
+public class ExpenseRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseRollupService.class);
+
+    private final ExpenseRollupRepository rollupRepository;
+    private final CategoryDictionary categoryDictionary;
+
+    public ExpenseRollupService(ExpenseRollupRepository rollupRepository, CategoryDictionary categoryDictionary) {
+        this.rollupRepository = rollupRepository;
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    /** Snapshot of the fields that decide an expense's bucket, taken before it is modified. */
+    public record Bucketed(LocalDate date, String category, double amount) {
+        public static Bucketed of(Expense expense) {
+            return new Bucketed(expense.getDate(), expense.getCategory(), expense.getAmount());
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Long userId, List<Expense> expenses) {
+        // Collapse a batch to one delta per bucket so a bulk insert does one upsert per day and category
+        Map<List<Object>, Delta> deltas = new LinkedHashMap<>();
+        for (Expense expense : expenses) {
+            if (expense.getDate() == null) {
+                continue;
+            }
+            Delta delta = delta(Bucketed.of(expense), 1);
+            deltas.merge(List.of(delta.day(), delta.categoryId()), delta,
+                    (a, b) -> new Delta(a.day(), a.categoryId(), a.amount().add(b.amount()), a.count() + b.count()));
+        }
+        rollupRepository.apply(userId, new ArrayList<>(deltas.values()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(Long userId, Bucketed before, Expense after) {
+        Bucketed current = Bucketed.of(after);
+        if (current.equals(before)) {
+            return;
+        }
+        List<Delta> deltas = new ArrayList<>(2);
+        if (before.date() != null) {
+            deltas.add(delta(before, -1));
+        }
+        if (current.date() != null) {
+            deltas.add(delta(current, 1));
+        }
+        rollupRepository.apply(userId, deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Long userId, Expense expense) {
+        if (expense.getDate() != null) {
+            rollupRepository.apply(userId, List.of(delta(Bucketed.of(expense), -1)));
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<RollupBucket> getRollup(Long userId, SummaryPeriod period, LocalDate startDate, LocalDate endDate) {
+        if (period == SummaryPeriod.WEEK) {
+            throw new InvalidRequestException("Rollups are kept by day and month only.");
+        }
+        // A month bucket cannot be split, so monthly bounds must cover whole months rather than be silently widened
+        if (period == SummaryPeriod.MONTH && startDate != null && startDate.getDayOfMonth() != 1) {
+            throw new InvalidRequestException("Monthly rollups need startDate on the first day of a month, got " + startDate + ".");
+        }
+        if (period == SummaryPeriod.MONTH && endDate != null && endDate.getDayOfMonth() != endDate.lengthOfMonth()) {
+            throw new InvalidRequestException("Monthly rollups need endDate on the last day of a month, got " + endDate + ".");
+        }
+        LocalDate start = startDate != null ? startDate : LocalDate.of(1, 1, 1);
+        LocalDate end = endDate != null ? endDate : LocalDate.of(9999, 12, 31);
+        return period == SummaryPeriod.DAY
+                ? rollupRepository.findDaily(userId, start, end)
+                : rollupRepository.findMonthly(userId, start, end);
+    }
+
+    /** Recomputes rollups from the expense table for one user, or for everyone when userId is null. */
+    @Transactional
+    public void rebuild(Long userId) {
+        logger.info("Rebuilding expense rollups for {}.", userId != null ? "user " + userId : "all users");
+        rollupRepository.rebuild(userId);
+    }
+
+    private Delta delta(Bucketed expense, int sign) {
+        BigDecimal amount = BigDecimal.valueOf(expense.amount());
+        return new Delta(expense.date(), categoryDictionary.keyOf(expense.category()),
+                sign < 0 ? amount.negate() : amount, sign);
+    }
+}
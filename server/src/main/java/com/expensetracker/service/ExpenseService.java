@@ -2,14 +2,28 @@ package com.expensetracker.service;
 
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.User;
+import com.expensetracker.payload.response.BulkExpenseResult;
+import com.expensetracker.payload.response.ExpensePageResponse;
+import com.expensetracker.payload.response.ExpenseSummaryResponse;
+import com.expensetracker.payload.response.RollupBucket;
+import com.expensetracker.repository.projection.ExpenseView;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 
 public interface ExpenseService {
-    List<Expense> getAllExpenses(User user, LocalDate startDate, LocalDate endDate);
-    Expense getExpenseById(User user, Long id);
+    long getChangeVersion(User user);
+    List<ExpenseView> getAllExpenses(User user, LocalDate startDate, LocalDate endDate);
+    ExpensePageResponse getExpensePage(User user, LocalDate startDate, LocalDate endDate, String cursor, Integer limit);
+    ExpensePageResponse searchExpenses(User user, String query, String category, LocalDate startDate, LocalDate endDate, String cursor, Integer limit);
+    ExpenseSummaryResponse getExpenseSummary(User user, LocalDate startDate, LocalDate endDate, SummaryPeriod period);
+    List<RollupBucket> getExpenseRollup(User user, LocalDate startDate, LocalDate endDate, SummaryPeriod period);
+    void exportExpenses(User user, LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream out) throws IOException;
+    ExpenseView getExpenseById(User user, Long id);
     Expense createExpense(Expense expense);
+    List<BulkExpenseResult> createExpenses(List<Expense> expenses);
     Expense updateExpense(User user, Long id, Expense expenseDetails);
     void deleteExpense(User user, Long id);
 }
\ No newline at end of file
@@ -1,107 +1,376 @@
 package com.expensetracker.service;
 
+import com.expensetracker.cache.ExpenseCacheGenerations;
+import com.expensetracker.cache.ExpenseSnapshot;
+import com.expensetracker.cache.ExpenseSnapshotStore;
+import com.expensetracker.exception.ExpenseConflictException;
 import com.expensetracker.exception.ExpenseNotFoundException;
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.User;
+import com.expensetracker.exception.InvalidRequestException;
+import com.expensetracker.payload.response.BulkExpenseResult;
+import com.expensetracker.payload.response.ExpensePageResponse;
+import com.expensetracker.payload.response.ExpenseSummaryResponse;
+import com.expensetracker.payload.response.RollupBucket;
+import com.expensetracker.repository.CategoryDictionary;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseSearchRepository;
+import com.expensetracker.repository.ExpenseStreamRepository;
+import com.expensetracker.repository.ExpenseWriteRepository;
+import com.expensetracker.repository.projection.CategoryTotal;
+import com.expensetracker.repository.projection.ExpenseView;
+import com.expensetracker.repository.projection.PeriodTotal;
+import com.expensetracker.repository.routing.ReadYourWrites;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
+@Timed(value = "expensetracker.service", histogram = true)
 public class ExpenseServiceImpl implements ExpenseService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpenseServiceImpl.class);
 
+    // Stand-ins for an open date range in native queries; both are valid PostgreSQL dates.
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    // Matches the VARCHAR(255) columns; checked up front so one bad row cannot fail a whole batch
+    private static final int MAX_TEXT_LENGTH = 255;
+
     private final ExpenseRepository expenseRepository;
     private final UserService userService;
+    private final ExpenseCacheGenerations cacheGenerations;
+    private final ExpenseStreamRepository expenseStreamRepository;
+    private final ObjectMapper objectMapper;
+    private final ExpenseRollupService rollupService;
+    private final ExpenseSnapshotStore snapshotStore;
+    private final ExpenseWriteRepository expenseWriteRepository;
+    private final ExpenseSearchRepository expenseSearchRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final ExpenseBatchWriter batchWriter;
+    private final ExpenseCreateCoalescer createCoalescer;
+    private final ReadYourWrites readYourWrites;
+    private final TransactionTemplate writeTransaction;
+
+    @Value("${expensetracker.app.expensePageDefaultSize:50}")
+    private int pageDefaultSize;
+
+    @Value("${expensetracker.app.expensePageMaxSize:200}")
+    private int pageMaxSize;
 
-    public ExpenseServiceImpl(ExpenseRepository expenseRepository, UserService userService) {
+    @Value("${expensetracker.app.bulkCreateMaxSize:1000}")
+    private int bulkCreateMaxSize;
+
+    public ExpenseServiceImpl(ExpenseRepository expenseRepository, UserService userService, ExpenseCacheGenerations cacheGenerations,
+                              ExpenseStreamRepository expenseStreamRepository, ObjectMapper objectMapper,
+                              ExpenseRollupService rollupService, ExpenseSnapshotStore snapshotStore,
+                              ExpenseWriteRepository expenseWriteRepository, ExpenseSearchRepository expenseSearchRepository,
+                              CategoryDictionary categoryDictionary, ExpenseBatchWriter batchWriter,
+                              ExpenseCreateCoalescer createCoalescer, ReadYourWrites readYourWrites,
+                              PlatformTransactionManager transactionManager) {
         this.expenseRepository = expenseRepository;
         this.userService = userService;
+        this.cacheGenerations = cacheGenerations;
+        this.expenseStreamRepository = expenseStreamRepository;
+        this.objectMapper = objectMapper;
+        this.rollupService = rollupService;
+        this.snapshotStore = snapshotStore;
+        this.expenseWriteRepository = expenseWriteRepository;
+        this.expenseSearchRepository = expenseSearchRepository;
+        this.categoryDictionary = categoryDictionary;
+        this.batchWriter = batchWriter;
+        this.createCoalescer = createCoalescer;
+        this.readYourWrites = readYourWrites;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public long getChangeVersion(User user) {
+        // The cache generation already moves on every committed write, so it doubles as the listing version
+        return cacheGenerations.current(user.getId());
     }
 
     @Override
-    @Cacheable(value = "expenses", key = "#user.id + ':' + T(java.util.Objects).toString(#startDate) + ':' + T(java.util.Objects).toString(#endDate)")
-    public List<Expense> getAllExpenses(User user, LocalDate startDate, LocalDate endDate) {
+    @Transactional(readOnly = true) // Served by a read replica when one is configured
+    @Cacheable(value = "expenses", key = "#user.id + ':' + @expenseCacheGenerations.current(#user.id) + ':' + T(java.util.Objects).toString(#startDate) + ':' + T(java.util.Objects).toString(#endDate)")
+    public List<ExpenseView> getAllExpenses(User user, LocalDate startDate, LocalDate endDate) {
         logger.info("Fetching all expenses from service for user {} with startDate: {} and endDate: {}", user.getId(), startDate, endDate);
-        if (startDate != null && endDate != null) {
-            List<Expense> expenses = expenseRepository.findByUserAndDateBetween(user, startDate, endDate);
-            logger.debug("Found {} expenses for user {} between {} and {}.", expenses.size(), user.getId(), startDate, endDate);
-            return expenses;
-        } else if (startDate != null) {
-            List<Expense> expenses = expenseRepository.findByUserAndDateAfter(user, startDate);
-            logger.debug("Found {} expenses for user {} after {}.", expenses.size(), user.getId(), startDate);
-            return expenses;
-        } else if (endDate != null) {
-            List<Expense> expenses = expenseRepository.findByUserAndDateBefore(user, endDate);
-            logger.debug("Found {} expenses for user {} before {}.", expenses.size(), user.getId(), endDate);
+        ExpenseSnapshot snapshot = snapshotStore.get(user.getId());
+        if (snapshot != null) {
+            List<ExpenseView> expenses = snapshot.find(startDate, endDate);
+            logger.debug("Found {} expenses for user {} in snapshot.", expenses.size(), user.getId());
             return expenses;
+        }
+        // A lone start or end date is exclusive, while a full range includes both ends
+        LocalDate from = startDate != null && endDate == null ? startDate.plusDays(1) : startDate;
+        LocalDate to = endDate != null && startDate == null ? endDate.minusDays(1) : endDate;
+        List<ExpenseView> expenses = expenseRepository.findViews(user.getId(), from, to);
+        logger.debug("Found {} expenses for user {} between {} and {}.", expenses.size(), user.getId(), startDate, endDate);
+        return expenses;
+    }
+
+    @Override
+    public ExpensePageResponse getExpensePage(User user, LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? pageDefaultSize : Math.min(limit, pageMaxSize);
+        logger.info("Fetching expense page for user {} with startDate: {}, endDate: {}, size: {}", user.getId(), startDate, endDate, pageSize);
+        // Fetch one extra row to learn whether another page exists without a count query
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        ExpenseCursor position = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+        List<ExpenseView> expenses;
+        if (position == null) {
+            expenses = expenseRepository.findFirstPage(user.getId(), startDate, endDate, pageRequest);
+        } else if (position.date() != null) {
+            expenses = expenseRepository.findPageAfter(user.getId(), startDate, endDate, position.date(), position.id(), pageRequest);
         } else {
-            List<Expense> expenses = expenseRepository.findByUser(user);
-            logger.debug("Found {} total expenses for user {}.", expenses.size(), user.getId());
-            return expenses;
+            expenses = List.of(); // Already past the dated expenses
+        }
+        if (expenses.size() <= pageSize && startDate == null && endDate == null) {
+            // Undated expenses fall outside any date range; without one they are paged after every dated expense
+            Long afterId = position != null && position.date() == null ? position.id() : null;
+            expenses = new ArrayList<>(expenses);
+            expenses.addAll(expenseRepository.findUndatedPage(user.getId(), afterId, PageRequest.of(0, pageSize + 1 - expenses.size())));
+        }
+        String next = null;
+        if (expenses.size() > pageSize) {
+            expenses = expenses.subList(0, pageSize);
+            next = ExpenseCursor.of(expenses.get(pageSize - 1)).encode();
+        }
+        logger.debug("Returning {} expenses for user {}, has next page: {}.", expenses.size(), user.getId(), next != null);
+        return new ExpensePageResponse(expenses, next);
+    }
+
+    @Override
+    public ExpensePageResponse searchExpenses(User user, String query, String category, LocalDate startDate, LocalDate endDate,
+                                              String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? pageDefaultSize : Math.min(limit, pageMaxSize);
+        String tsQuery = SearchQuery.toPrefixTsQuery(query);
+        logger.info("Searching expenses for user {} with query: {}, category: {}, startDate: {}, endDate: {}, size: {}",
+                user.getId(), tsQuery, category, startDate, endDate, pageSize);
+        Short categoryId = null;
+        if (category != null && !category.isBlank()) {
+            categoryId = categoryDictionary.findId(category);
+            if (categoryId == null) {
+                return new ExpensePageResponse(List.of(), null); // Nobody has used this category yet
+            }
+        }
+        SearchCursor after = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor);
+        List<ExpenseSearchRepository.SearchHit> hits = expenseSearchRepository.search(user.getId(), tsQuery, categoryId, startDate, endDate,
+                after != null ? after.rank() : null, after != null ? after.id() : null, pageSize + 1);
+        String next = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            ExpenseSearchRepository.SearchHit last = hits.get(pageSize - 1);
+            next = new SearchCursor(last.rank(), last.expense().id()).encode();
+        }
+        List<ExpenseView> items = new ArrayList<>(hits.size());
+        for (ExpenseSearchRepository.SearchHit hit : hits) {
+            items.add(hit.expense());
+        }
+        logger.debug("Search returned {} expenses for user {}, has next page: {}.", items.size(), user.getId(), next != null);
+        return new ExpensePageResponse(items, next);
+    }
+
+    @Override
+    public ExpenseSummaryResponse getExpenseSummary(User user, LocalDate startDate, LocalDate endDate, SummaryPeriod period) {
+        logger.info("Summarising expenses for user {} by {} with startDate: {} and endDate: {}", user.getId(), period, startDate, endDate);
+        ExpenseSnapshot snapshot = snapshotStore.get(user.getId());
+        List<CategoryTotal> byCategory;
+        List<PeriodTotal> byPeriod;
+        if (snapshot != null) {
+            byCategory = snapshot.sumByCategory(startDate, endDate);
+            byPeriod = snapshot.sumByPeriod(period, startDate, endDate);
+        } else {
+            byCategory = expenseRepository.sumByCategory(user.getId(), startDate, endDate);
+            byPeriod = expenseRepository.sumByPeriod(user.getId(), period.getUnit(),
+                    startDate != null ? startDate : MIN_DATE, endDate != null ? endDate : MAX_DATE);
+        }
+        double total = 0;
+        long count = 0;
+        for (CategoryTotal categoryTotal : byCategory) {
+            total += categoryTotal.getTotal() != null ? categoryTotal.getTotal() : 0;
+            count += categoryTotal.getCount();
         }
+        logger.debug("Summarised {} expenses for user {} into {} categories and {} periods.", count, user.getId(), byCategory.size(), byPeriod.size());
+        return new ExpenseSummaryResponse(total, count, period.getUnit(), byCategory, byPeriod);
+    }
+
+    @Override
+    public List<RollupBucket> getExpenseRollup(User user, LocalDate startDate, LocalDate endDate, SummaryPeriod period) {
+        logger.info("Fetching expense rollup for user {} by {} with startDate: {} and endDate: {}", user.getId(), period, startDate, endDate);
+        List<RollupBucket> buckets = rollupService.getRollup(user.getId(), period, startDate, endDate);
+        logger.debug("Found {} rollup buckets for user {}.", buckets.size(), user.getId());
+        return buckets;
+    }
+
+    @Override
+    @Transactional(readOnly = true) // PostgreSQL only streams from a cursor with auto-commit off
+    public void exportExpenses(User user, LocalDate startDate, LocalDate endDate, ExportFormat format, OutputStream out) throws IOException {
+        logger.info("Exporting expenses as {} for user {} with startDate: {} and endDate: {}", format, user.getId(), startDate, endDate);
+        ExpenseExportWriter writer = new ExpenseExportWriter(format, out, objectMapper);
+        long[] rows = {0};
+        expenseStreamRepository.forEachByUser(user.getId(), startDate, endDate, expense -> {
+            writer.write(expense);
+            rows[0]++;
+        });
+        writer.finish();
+        logger.debug("Exported {} expenses for user {}.", rows[0], user.getId());
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "expense", key = "#user.id + ':' + #id")
-    public Expense getExpenseById(User user, Long id) {
+    public ExpenseView getExpenseById(User user, Long id) {
         logger.info("Fetching expense by ID {} for user {} from service.", id, user.getId());
-        return expenseRepository.findById(id)
-                .filter(expense -> expense.getUser().equals(user)) // Ensure expense belongs to user
+        return expenseRepository.findViewByIdAndUserId(id, user.getId()) // Ensure expense belongs to user
                 .orElseThrow(() -> new ExpenseNotFoundException("Expense not found with id: " + id + " for user: " + user.getId()));
     }
 
     @Override
-    @CacheEvict(value = "expenses", allEntries = true) // Still clearing all for simplicity, but ideally more granular
-    @CachePut(value = "expense", key = "#expense.user.id + ':' + #expense.id")
     public Expense createExpense(Expense expense) {
+        // Not transactional itself: a caller waiting on a group commit must not hold a connection
         User currentUser = userService.getCurrentUser();
         expense.setUser(currentUser); // Set user before saving
+        expense.setId(null);
+        expense.setVersion(null); // New rows start at version 0 whatever the client sent
         logger.info("Creating new expense from service for user {}: {}", currentUser.getId(), expense.getDescription());
-        Expense createdExpense = expenseRepository.save(expense);
+        categoryDictionary.register(currentUser.getId(), Collections.singletonList(expense.getCategory()));
+        CompletableFuture<Expense> pending = createCoalescer.submit(expense);
+        Expense createdExpense = pending != null ? await(pending) : batchWriter.insert(List.of(expense)).get(0);
         logger.debug("Expense created with ID: {} for user {}.", createdExpense.getId(), currentUser.getId());
         return createdExpense;
     }
 
+    private static Expense await(CompletableFuture<Expense> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            // Surface the caller's own failure, not the future's wrapper
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     @Override
-    @CacheEvict(value = "expenses", allEntries = true) // Still clearing all for simplicity, but ideally more granular
-    @CachePut(value = "expense", key = "#user.id + ':' + #id")
+    public List<BulkExpenseResult> createExpenses(List<Expense> expenses) {
+        if (expenses.size() > bulkCreateMaxSize) {
+            throw new InvalidRequestException("Too many expenses in one request: " + expenses.size() + " (max " + bulkCreateMaxSize + ")");
+        }
+        User currentUser = userService.getCurrentUser();
+        logger.info("Bulk creating {} expenses from service for user {}.", expenses.size(), currentUser.getId());
+        List<BulkExpenseResult> results = new ArrayList<>(expenses.size());
+        List<Expense> accepted = new ArrayList<>(expenses.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(expenses.size());
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense expense = expenses.get(i);
+            String error = validateForCreate(expense);
+            if (error != null) {
+                results.add(BulkExpenseResult.failed(i, error));
+                continue;
+            }
+            expense.setId(null);
+            expense.setVersion(null);
+            expense.setUser(currentUser);
+            accepted.add(expense);
+            acceptedIndexes.add(i);
+            results.add(null); // Filled in once ids are assigned
+        }
+        Set<String> categories = new LinkedHashSet<>();
+        for (Expense expense : accepted) {
+            categories.add(expense.getCategory());
+        }
+        // Before the insert's transaction opens; all or nothing, as a category error is the caller's to fix
+        categoryDictionary.register(currentUser.getId(), categories);
+        List<Expense> saved = batchWriter.insert(accepted); // One transaction for every accepted row
+        for (int i = 0; i < saved.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results.set(index, BulkExpenseResult.created(index, saved.get(i).getId()));
+        }
+        logger.debug("Bulk created {} of {} expenses for user {}.", saved.size(), expenses.size(), currentUser.getId());
+        return results;
+    }
+
+    private static String validateForCreate(Expense expense) {
+        if (expense == null) {
+            return "Expense must not be null";
+        }
+        if (expense.getDescription() != null && expense.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "description: size must be at most " + MAX_TEXT_LENGTH;
+        }
+        if (expense.getCategory() != null && expense.getCategory().length() > MAX_TEXT_LENGTH) {
+            return "category: size must be at most " + MAX_TEXT_LENGTH;
+        }
+        return null;
+    }
+
+    @Override
+    @CacheEvict(value = "expense", key = "#user.id + ':' + #id") // The cache holds views, so the next read reloads one
     public Expense updateExpense(User user, Long id, Expense expenseDetails) {
         logger.info("Updating expense from service with ID {} for user {}.", id, user.getId());
-        Expense expense = expenseRepository.findById(id)
-                .filter(exp -> exp.getUser().equals(user)) // Ensure expense belongs to user
+        // A new category is created before the transaction opens, never while it holds a connection
+        categoryDictionary.register(user.getId(), Collections.singletonList(expenseDetails.getCategory()));
+        return writeTransaction.execute(status -> applyUpdate(user, id, expenseDetails));
+    }
+
+    private Expense applyUpdate(User user, Long id, Expense expenseDetails) {
+        // One statement: ownership, the optional version check and the write all happen in the database
+        ExpenseWriteRepository.ExpenseChange change = expenseWriteRepository.updateByIdAndUserId(id, user.getId(), expenseDetails)
                 .orElseThrow(() -> {
                     logger.warn("Expense not found with ID {} for user {}.", id, user.getId());
                     return new ExpenseNotFoundException("Expense not found with id: " + id + " for user: " + user.getId());
                 });
-        expense.setDescription(expenseDetails.getDescription());
-        expense.setAmount(expenseDetails.getAmount());
-        expense.setCategory(expenseDetails.getCategory());
-        expense.setDate(expenseDetails.getDate());
-        Expense updatedExpense = expenseRepository.save(expense);
-        logger.debug("Expense with ID {} updated successfully for user {}.", updatedExpense.getId(), user.getId());
+        if (change.after() == null) {
+            logger.warn("Expense with ID {} for user {} is at version {}, update expected {}.", id, user.getId(),
+                    change.before().getVersion(), expenseDetails.getVersion());
+            throw new ExpenseConflictException("Expense with id: " + id + " was modified concurrently (current version: "
+                    + change.before().getVersion() + ")");
+        }
+        Expense updatedExpense = change.after();
+        updatedExpense.setUser(user);
+        rollupService.recordUpdated(user.getId(), ExpenseRollupService.Bucketed.of(change.before()), updatedExpense); // Moves value if date, category or amount changed
+        readYourWrites.markWriteAfterCommit(user.getId()); // Before the snapshot evict, so peers rebuild it from the primary
+        snapshotStore.upsertAfterCommit(user.getId(), List.of(updatedExpense));
+        cacheGenerations.bumpAfterCommit(user.getId());
+        logger.debug("Expense with ID {} updated successfully to version {} for user {}.", id, updatedExpense.getVersion(), user.getId());
         return updatedExpense;
     }
 
     @Override
-    @CacheEvict(value = {"expense", "expenses"}, key = "#user.id + ':' + #id", allEntries = true) // Still clearing all for simplicity, but ideally more granular
+    @CacheEvict(value = "expense", key = "#user.id + ':' + #id")
+    @Transactional
     public void deleteExpense(User user, Long id) {
         logger.info("Deleting expense from service with ID {} for user {}.", id, user.getId());
-        Expense expense = expenseRepository.findById(id)
-                .filter(exp -> exp.getUser().equals(user)) // Ensure expense belongs to user
+        Expense expense = expenseWriteRepository.deleteByIdAndUserId(id, user.getId()) // Ensure expense belongs to user
                 .orElseThrow(() -> {
                     logger.warn("Expense not found with ID {} for user {}.", id, user.getId());
                     return new ExpenseNotFoundException("Expense not found with id: " + id + " for user: " + user.getId());
                 });
-        expenseRepository.delete(expense);
+        rollupService.recordDeleted(user.getId(), expense);
+        readYourWrites.markWriteAfterCommit(user.getId()); // Before the snapshot evict, so peers rebuild it from the primary
+        snapshotStore.removeAfterCommit(user.getId(), id);
+        cacheGenerations.bumpAfterCommit(user.getId());
         logger.debug("Expense with ID {} deleted successfully for user {}.", id, user.getId());
     }
 }
@@ -0,0 +1,38 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidRequestException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("csv", new MediaType("text", "csv")),
+    NDJSON("ndjson", new MediaType("application", "x-ndjson"));
+
+    private final String extension;
+    private final MediaType mediaType;
+
+    ExportFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat from(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid export format: " + value + ". Expected one of csv, ndjson.");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.ExportBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps concurrent exports on this node. Each one holds a database connection for as long as it
+ * streams, so beyond {@code exportMaxConcurrent} they are refused with 503 at once rather than
+ * queued behind the others. The async executor in WebAsyncConfig has a thread for every slot.
+ */
+@Component
+public class ExportLimiter {
+
+    private final int maxConcurrent;
+    private final Semaphore slots;
+    private final Counter rejected;
+
+    public ExportLimiter(@Value("${expensetracker.app.exportMaxConcurrent:3}") int maxConcurrent, MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.slots = new Semaphore(maxConcurrent);
+        this.rejected = Counter.builder("expensetracker.requests.rejected")
+                .description("Requests turned away by rate limiting or load shedding")
+                .tag("reason", "export")
+                .register(meterRegistry);
+        Gauge.builder("expensetracker.exports.active", slots, s -> maxConcurrent - s.availablePermits())
+                .description("Exports streaming on this node")
+                .register(meterRegistry);
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /** Takes a slot, which the caller must {@link #release()} once the export ends, or throws 503. */
+    public void acquire() {
+        if (!slots.tryAcquire()) {
+            rejected.increment();
+            throw new ExportBusyException("Too many exports in progress, try again shortly.");
+        }
+    }
+
+    public void release() {
+        slots.release();
+    }
+}
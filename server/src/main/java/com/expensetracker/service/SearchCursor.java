@@ -0,0 +1,35 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in search results ordered by (rank, id) descending. The rank is the
+ * PostgreSQL real returned with the last row; Float.toString round-trips it exactly.
+ */
+public record SearchCursor(float rank, long id) {
+
+    public String encode() {
+        String raw = rank + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            float rank = Float.parseFloat(raw.substring(0, separator));
+            if (!Float.isFinite(rank)) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return new SearchCursor(rank, Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidRequestException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns free text into a tsquery where every word must match as a prefix, e.g. "team din" becomes
+ * "team:* & din:*". Words shorter than {@value #MIN_PREFIX_LENGTH} characters must match a whole word
+ * instead: a one- or two-letter prefix matches most of a user's history, and every match is ranked
+ * before the page is cut. Only letters and digits survive, so user input can never inject tsquery operators.
+ */
+public final class SearchQuery {
+
+    private static final int MAX_TERMS = 8;
+    static final int MIN_PREFIX_LENGTH = 3;
+
+    private SearchQuery() {
+    }
+
+    public static String toPrefixTsQuery(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty() && terms.size() < MAX_TERMS) {
+                    terms.add(word.length() >= MIN_PREFIX_LENGTH ? word + ":*" : word);
+                }
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new InvalidRequestException("Search query must contain at least one letter or digit.");
+        }
+        return String.join(" & ", terms);
+    }
+}
@@ -0,0 +1,35 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+/**
+ * Bucket size for time-based expense summaries. The unit is passed to PostgreSQL's date_trunc.
+ */
+public enum SummaryPeriod {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month");
+
+    private final String unit;
+
+    SummaryPeriod(String unit) {
+        this.unit = unit;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public static SummaryPeriod from(String value) {
+        if (value == null || value.isBlank()) {
+            return MONTH;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid summary period: " + value + ". Expected one of day, week, month.");
+        }
+    }
+}
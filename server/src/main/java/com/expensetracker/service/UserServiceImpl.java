@@ -18,7 +18,8 @@ public class UserServiceImpl implements UserService {
     @Override
     public User getCurrentUser() {
         UserDetailsImpl userDetails = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return userRepository.findById(userDetails.getId())
-                .orElseThrow(() -> new RuntimeException("Error: User not found."));
+        // Lazy reference: only the id is needed to scope queries and set the owner of new expenses.
+        // Not transactional: this issues no SQL and runs on every request, including the 304 path.
+        return userRepository.getReferenceById(userDetails.getId());
     }
 }
@@ -0,0 +1,56 @@
+-- Range-partition expense by month on date, so date-bounded queries only touch the months they ask
+-- for and vacuum and index maintenance work one month at a time. The table is rebuilt and its rows
+-- copied across; ExpensePartitionMaintenance keeps months ahead of today created from here on.
+--
+-- Dates are nullable, so they cannot be part of a primary key on the partitioned table. Rows with no
+-- date, or a date outside the monthly partitions, live in expense_default, and every partition has
+-- its own primary key on id instead; ids stay unique across partitions because they come from expense_seq.
+
+ALTER SEQUENCE expense_seq OWNED BY NONE; -- Would otherwise be dropped with the old table
+
+ALTER TABLE expense RENAME TO expense_unpartitioned;
+
+CREATE TABLE expense (
+    id BIGINT NOT NULL DEFAULT nextval('expense_seq'),
+    description VARCHAR(255),
+    amount DOUBLE PRECISION,
+    date DATE,
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    category_id SMALLINT REFERENCES category (id),
+    version BIGINT NOT NULL DEFAULT 0,
+    search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', COALESCE(description, ''))) STORED
+) PARTITION BY RANGE (date);
+
+CREATE TABLE expense_default PARTITION OF expense DEFAULT;
+ALTER TABLE expense_default ADD PRIMARY KEY (id);
+
+-- One partition per month from the oldest expense (but no more than ten years back) to three months ahead
+DO $$
+DECLARE
+    partition_start DATE := date_trunc('month', GREATEST(
+            LEAST(COALESCE((SELECT MIN(date) FROM expense_unpartitioned), CURRENT_DATE), CURRENT_DATE),
+            CURRENT_DATE - INTERVAL '10 years'));
+    last_month DATE := date_trunc('month', CURRENT_DATE + INTERVAL '3 months');
+    partition_name TEXT;
+BEGIN
+    WHILE partition_start <= last_month LOOP
+        partition_name := 'expense_y' || to_char(partition_start, 'YYYY') || 'm' || to_char(partition_start, 'MM');
+        EXECUTE format('CREATE TABLE %I PARTITION OF expense FOR VALUES FROM (%L) TO (%L)',
+                partition_name, partition_start, (partition_start + INTERVAL '1 month')::date);
+        EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id)', partition_name);
+        partition_start := (partition_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO expense (id, description, amount, date, user_id, category_id, version)
+SELECT id, description, amount, date, user_id, category_id, version
+FROM expense_unpartitioned;
+
+DROP TABLE expense_unpartitioned;
+
+ALTER SEQUENCE expense_seq OWNED BY expense.id;
+
+-- Declared on the parent, so every current and future partition gets its own copy
+CREATE INDEX idx_expense_date ON expense (date);
+CREATE INDEX idx_expense_user_date_id ON expense (user_id, date, id);
+CREATE INDEX idx_expense_search_vector ON expense USING GIN (search_vector);
@@ -0,0 +1,5 @@
+-- Who created each category, so the number a single user can create is capped (ids are a shared smallint).
+-- Categories that existed before have no creator and count against nobody.
+ALTER TABLE category ADD COLUMN created_by BIGINT REFERENCES users (id) ON DELETE SET NULL;
+
+CREATE INDEX idx_category_created_by ON category (created_by);
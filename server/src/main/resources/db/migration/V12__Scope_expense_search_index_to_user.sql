@@ -0,0 +1,9 @@
+-- Search is always for one user, but the GIN index on search_vector alone made a common prefix such as
+-- "a:*" collect matches from every user before filtering on user_id. btree_gin lets user_id lead the GIN
+-- index, so the index scan only returns the searching user's rows. The extension is trusted, so the
+-- database owner can create it without superuser rights.
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+DROP INDEX idx_expense_search_vector;
+
+CREATE INDEX idx_expense_user_search_vector ON expense USING GIN (user_id, search_vector);
@@ -0,0 +1 @@
+CREATE INDEX idx_expense_user_date_id ON expense (user_id, date, id);
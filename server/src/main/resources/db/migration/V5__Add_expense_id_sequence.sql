@@ -0,0 +1,8 @@
+-- Sequence-backed ids let Hibernate batch inserts (IDENTITY forces one round trip per row).
+-- INCREMENT BY must match allocationSize on Expense.id; Hibernate's pooled optimizer hands out
+-- the block (value - 49 .. value), so the first value is placed 50 past the current maximum id.
+CREATE SEQUENCE expense_seq INCREMENT BY 50;
+SELECT setval('expense_seq', COALESCE((SELECT MAX(id) FROM expense), 0) + 50, false);
+ALTER TABLE expense ALTER COLUMN id SET DEFAULT nextval('expense_seq');
+ALTER SEQUENCE expense_seq OWNED BY expense.id;
+DROP SEQUENCE expense_id_seq;
@@ -0,0 +1,31 @@
+-- Per-user totals by category and day/month, maintained by the service in the same transaction as
+-- each expense write. Category NULL is stored as '' so it can be part of the primary key; expenses
+-- without a date are not bucketed. NUMERIC totals avoid drift from repeated add/subtract.
+CREATE TABLE expense_daily_rollup (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    day DATE NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    total NUMERIC(19, 4) NOT NULL,
+    count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, day, category)
+);
+
+CREATE TABLE expense_monthly_rollup (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    month DATE NOT NULL, -- first day of the month
+    category VARCHAR(255) NOT NULL,
+    total NUMERIC(19, 4) NOT NULL,
+    count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, month, category)
+);
+
+INSERT INTO expense_daily_rollup (user_id, day, category, total, count)
+SELECT user_id, date, COALESCE(category, ''), SUM(CAST(amount AS NUMERIC(19, 4))), COUNT(*)
+FROM expense
+WHERE date IS NOT NULL
+GROUP BY user_id, date, COALESCE(category, '');
+
+INSERT INTO expense_monthly_rollup (user_id, month, category, total, count)
+SELECT user_id, CAST(date_trunc('month', day) AS DATE), category, SUM(total), SUM(count)
+FROM expense_daily_rollup
+GROUP BY user_id, CAST(date_trunc('month', day) AS DATE), category;
@@ -0,0 +1,47 @@
+-- Category names are stored once and referenced by a 2-byte id instead of repeating the text on every row.
+CREATE TABLE category (
+    id SMALLSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+INSERT INTO category (name)
+SELECT DISTINCT category FROM expense WHERE category IS NOT NULL ORDER BY category;
+
+ALTER TABLE expense ADD COLUMN category_id SMALLINT REFERENCES category (id);
+
+UPDATE expense e SET category_id = c.id FROM category c WHERE c.name = e.category;
+
+ALTER TABLE expense DROP COLUMN category;
+
+-- The rollups are derived data, so they are recreated keyed by id (0 for uncategorized) and backfilled again.
+DROP TABLE expense_daily_rollup;
+DROP TABLE expense_monthly_rollup;
+
+CREATE TABLE expense_daily_rollup (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    day DATE NOT NULL,
+    category_id SMALLINT NOT NULL,
+    total NUMERIC(19, 4) NOT NULL,
+    count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, day, category_id)
+);
+
+CREATE TABLE expense_monthly_rollup (
+    user_id BIGINT NOT NULL REFERENCES users (id),
+    month DATE NOT NULL, -- first day of the month
+    category_id SMALLINT NOT NULL,
+    total NUMERIC(19, 4) NOT NULL,
+    count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, month, category_id)
+);
+
+INSERT INTO expense_daily_rollup (user_id, day, category_id, total, count)
+SELECT user_id, date, COALESCE(category_id, 0), SUM(CAST(amount AS NUMERIC(19, 4))), COUNT(*)
+FROM expense
+WHERE date IS NOT NULL
+GROUP BY user_id, date, COALESCE(category_id, 0);
+
+INSERT INTO expense_monthly_rollup (user_id, month, category_id, total, count)
+SELECT user_id, CAST(date_trunc('month', day) AS DATE), category_id, SUM(total), SUM(count)
+FROM expense_daily_rollup
+GROUP BY user_id, CAST(date_trunc('month', day) AS DATE), category_id;
@@ -0,0 +1,2 @@
+-- Optimistic locking counter, bumped by every update so a stale client cannot overwrite a newer edit.
+ALTER TABLE expense ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
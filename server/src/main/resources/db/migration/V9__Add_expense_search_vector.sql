@@ -0,0 +1,6 @@
+-- Full-text search over descriptions. The 'simple' configuration lowercases without stemming, so
+-- prefix queries match what the user typed whatever the language of the description.
+ALTER TABLE expense ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', COALESCE(description, ''))) STORED;
+
+CREATE INDEX idx_expense_search_vector ON expense USING GIN (search_vector);
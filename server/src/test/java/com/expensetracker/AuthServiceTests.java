@@ -5,16 +5,21 @@ import com.expensetracker.controller.AuthController;
 import com.expensetracker.model.User;
 import com.expensetracker.payload.request.LoginRequest;
 import com.expensetracker.payload.request.SignupRequest;
+import com.expensetracker.payload.response.AvailabilityResponse;
+import com.expensetracker.payload.response.MessageResponse;
 
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.security.jwt.JwtUtils;
 import com.expensetracker.security.services.UserDetailsImpl;
+import com.expensetracker.service.AccountAvailabilityService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -22,12 +27,17 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
 import java.util.Collections;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +55,9 @@ public class AuthServiceTests {
     @Mock
     private JwtUtils jwtUtils;
 
+    @Mock
+    private AccountAvailabilityService availabilityService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -83,17 +96,15 @@ public class AuthServiceTests {
         signupRequest.setUsername("newuser");
         signupRequest.setEmail("new@example.com");
         signupRequest.setPassword("newpassword");
-        
 
-        when(userRepository.existsByUsername(any(String.class))).thenReturn(false);
-        when(userRepository.existsByEmail(any(String.class))).thenReturn(false);
         when(encoder.encode(any(String.class))).thenReturn("encodedPassword");
-        
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         ResponseEntity<?> response = authController.registerUser(signupRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userRepository, never()).existsByUsername(any(String.class));
+        verify(availabilityService).recordTaken("newuser", "new@example.com");
     }
 
     @Test
@@ -103,11 +114,14 @@ public class AuthServiceTests {
         signupRequest.setEmail("new@example.com");
         signupRequest.setPassword("newpassword");
 
-        when(userRepository.existsByUsername(any(String.class))).thenReturn(true);
+        when(encoder.encode(any(String.class))).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicate("users_username_key"));
 
         ResponseEntity<?> response = authController.registerUser(signupRequest);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Error: Username is already taken!", ((MessageResponse) response.getBody()).getMessage());
+        verify(availabilityService, never()).recordTaken(any(String.class), any(String.class));
     }
 
     @Test
@@ -117,13 +131,40 @@ public class AuthServiceTests {
         signupRequest.setEmail("test@example.com");
         signupRequest.setPassword("newpassword");
 
-        when(userRepository.existsByUsername(any(String.class))).thenReturn(false);
-        when(userRepository.existsByEmail(any(String.class))).thenReturn(true);
+        when(encoder.encode(any(String.class))).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicate("users_email_key"));
 
         ResponseEntity<?> response = authController.registerUser(signupRequest);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Error: Email is already in use!", ((MessageResponse) response.getBody()).getMessage());
+    }
+
+    @Test
+    void testRegisterUserRethrowsOtherIntegrityViolations() {
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setUsername("newuser");
+        signupRequest.setEmail("new@example.com");
+        signupRequest.setPassword("newpassword");
+
+        when(encoder.encode(any(String.class))).thenReturn("encodedPassword");
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicate("users_password_check"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> authController.registerUser(signupRequest));
     }
 
-    
+    @Test
+    void testCheckAvailabilityOnlyAnswersWhatWasAsked() {
+        when(availabilityService.isUsernameAvailable("newuser")).thenReturn(true);
+
+        AvailabilityResponse response = authController.checkAvailability("newuser", null);
+
+        assertEquals(Boolean.TRUE, response.getUsernameAvailable());
+        assertNull(response.getEmailAvailable());
+    }
+
+    private static DataIntegrityViolationException duplicate(String constraint) {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key value violates unique constraint", new SQLException("23505"), constraint));
+    }
 }
@@ -0,0 +1,119 @@
+package com.expensetracker;
+
+import com.expensetracker.cache.BinaryCacheSerializer;
+import com.expensetracker.cache.CacheValueCodec;
+import com.expensetracker.cache.ExpenseViewCodec;
+import com.expensetracker.cache.ExpenseViewListCodec;
+import com.expensetracker.cache.JdkCacheValueCodec;
+import com.expensetracker.repository.CategoryDictionary;
+import com.expensetracker.repository.projection.ExpenseView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BinaryCacheSerializerTests {
+
+    @Mock
+    private CategoryDictionary categoryDictionary;
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<CacheValueCodec> codecs;
+
+    @BeforeEach
+    void setUp() {
+        when(categoryDictionary.findId("Food")).thenReturn((short) 3);
+        when(categoryDictionary.nameOf((short) 3)).thenReturn("Food");
+        meterRegistry = new SimpleMeterRegistry();
+        ExpenseViewCodec viewCodec = new ExpenseViewCodec(categoryDictionary);
+        codecs = List.of(viewCodec, new ExpenseViewListCodec(viewCodec), new JdkCacheValueCodec(getClass().getClassLoader()));
+    }
+
+    @Test
+    void testRoundTripsViewsAndListsCompactly() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer("expense", codecs, 0, meterRegistry);
+        ExpenseView view = new ExpenseView(42L, "Lunch", 12.5, LocalDate.of(2024, 3, 1), "Food", 2L);
+        ExpenseView sparse = new ExpenseView(43L, null, -1.0, null, null, null);
+
+        byte[] entry = serializer.serialize(view);
+
+        assertEquals(view, serializer.deserialize(entry));
+        assertTrue(entry.length < new JdkSerializationRedisSerializer().serialize(view).length / 4);
+        assertEquals(List.of(view, sparse), serializer.deserialize(serializer.serialize(List.of(view, sparse))));
+        assertEquals(List.of(), serializer.deserialize(serializer.serialize(List.of())));
+        assertEquals(3, meterRegistry.get("cache.value.size").tag("cache", "expense").summary().count());
+    }
+
+    @Test
+    void testCompressesLargeEntries() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer("expenses", codecs, 256, meterRegistry);
+        List<ExpenseView> views = new ArrayList<>();
+        for (long i = 0; i < 500; i++) {
+            views.add(new ExpenseView(i, "Groceries at the corner shop", 20.0, LocalDate.of(2024, 1, 1).plusDays(i), "Food", 0L));
+        }
+
+        byte[] entry = serializer.serialize(views);
+
+        assertEquals(views, serializer.deserialize(entry));
+        assertEquals(1.0, meterRegistry.get("cache.value.compressed").counter().count());
+        assertTrue(entry.length < 500 * 20);
+    }
+
+    @Test
+    void testUnreadableEntriesAreMisses() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer("expense", codecs, 0, meterRegistry);
+        ExpenseView view = new ExpenseView(1L, "Lunch", 12.5, LocalDate.of(2024, 3, 1), "Food", 0L);
+
+        // Written before this serializer existed
+        assertNull(serializer.deserialize(new JdkSerializationRedisSerializer().serialize(view)));
+
+        byte[] olderLayout = serializer.serialize(view);
+        olderLayout[2]++;
+        assertNull(serializer.deserialize(olderLayout));
+
+        byte[] truncated = serializer.serialize(view);
+        assertNull(serializer.deserialize(Arrays.copyOf(truncated, truncated.length - 3)));
+
+        assertEquals(3.0, meterRegistry.find("cache.value.discarded").counters().stream().mapToDouble(c -> c.count()).sum());
+    }
+
+    @Test
+    void testFallsBackToJdkSerializationForOtherValues() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer("default", codecs, 0, meterRegistry);
+
+        assertEquals("plain", serializer.deserialize(serializer.serialize("plain")));
+    }
+
+    @Test
+    void testViewsWithUnknownCategoriesUseJdkSerialization() {
+        BinaryCacheSerializer serializer = new BinaryCacheSerializer("expenses", codecs, 0, meterRegistry);
+        List<ExpenseView> views = List.of(
+                new ExpenseView(1L, "Lunch", 12.5, LocalDate.of(2024, 3, 1), "Food", 0L),
+                new ExpenseView(2L, "Bus", 2.0, LocalDate.of(2024, 3, 2), "Transit", 0L));
+
+        byte[] entry = serializer.serialize(views);
+
+        assertEquals(0, entry[1]); // The JDK codec's tag
+        assertEquals(views, serializer.deserialize(entry));
+        verify(categoryDictionary, never()).idOf("Transit");
+    }
+}
@@ -0,0 +1,103 @@
+package com.expensetracker;
+
+import com.expensetracker.exception.PasswordHashingBusyException;
+import com.expensetracker.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedPasswordEncoderTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.close();
+        }
+    }
+
+    @Test
+    void testEncodesAndMatchesOnThePool() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, 5000, meterRegistry);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void testRejectsAtOnceWhenThePoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(blockingEncoder(started), 1, 1, 5000, meterRegistry);
+        CompletableFuture.runAsync(() -> encoder.encode("first")); // Occupies the only thread
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> encoder.encode("second")); // Fills the queue
+        waitForQueuedTask();
+
+        long before = System.nanoTime();
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("third"));
+
+        assertTrue(System.nanoTime() - before < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").tag("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    void testGivesUpWhenTheHashTakesLongerThanTheTimeout() {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(new CountDownLatch(1)), 1, 4, 50, meterRegistry);
+
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("slow"));
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void testUpgradeIsRequestedForHashesBelowTheConfiguredCost() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4, 5000, meterRegistry);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    private void waitForQueuedTask() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("executor.queued").tag("name", "password-hashing").gauge().value() < 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private PasswordEncoder blockingEncoder(CountDownLatch started) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.expensetracker;
+
+import com.expensetracker.exception.InvalidRequestException;
+import com.expensetracker.repository.CategoryDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CategoryDictionaryTests {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CategoryDictionary categoryDictionary;
+
+    @BeforeEach
+    void setUp() {
+        categoryDictionary = new CategoryDictionary(jdbcTemplate, transactionManager, 100, 30000);
+    }
+
+    @Test
+    void testIdOfLooksUpOnceThenServesFromMemory() {
+        when(jdbcTemplate.queryForList(eq("SELECT id FROM category WHERE name = ?"), eq(Short.class), eq("Food")))
+                .thenReturn(List.of((short) 3));
+
+        assertEquals((short) 3, categoryDictionary.idOf("Food"));
+        assertEquals((short) 3, categoryDictionary.idOf("Food"));
+        assertEquals("Food", categoryDictionary.nameOf((short) 3));
+
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Short.class), eq("Food"));
+    }
+
+    @Test
+    void testRegisterCreatesMissingCategoryForTheUser() {
+        when(jdbcTemplate.queryForList(eq("SELECT id FROM category WHERE name = ?"), eq(Short.class), eq("Travel")))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(eq("SELECT count(*) FROM category WHERE created_by = ?"), eq(Integer.class), eq(5L)))
+                .thenReturn(2);
+        when(jdbcTemplate.queryForObject("SELECT count(*) FROM category", Integer.class)).thenReturn(40);
+        when(jdbcTemplate.queryForList(eq("INSERT INTO category (name, created_by) VALUES (?, ?) ON CONFLICT (name) DO NOTHING RETURNING id"),
+                eq(Short.class), eq("Travel"), eq(5L)))
+                .thenReturn(List.of((short) 7));
+
+        categoryDictionary.register(5L, List.of("Travel"));
+
+        assertEquals((short) 7, categoryDictionary.idOf("Travel"));
+    }
+
+    @Test
+    void testRegisterRefusesCategoriesBeyondTheUsersLimit() {
+        when(jdbcTemplate.queryForList(eq("SELECT id FROM category WHERE name = ?"), eq(Short.class), anyString()))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(eq("SELECT count(*) FROM category WHERE created_by = ?"), eq(Integer.class), eq(5L)))
+                .thenReturn(99);
+
+        assertThrows(InvalidRequestException.class, () -> categoryDictionary.register(5L, List.of("Books", "Games")));
+
+        verify(jdbcTemplate, never()).queryForList(startsWith("INSERT"), eq(Short.class), any(), any());
+    }
+
+    @Test
+    void testIdOfRefusesUnregisteredCategory() {
+        when(jdbcTemplate.queryForList(eq("SELECT id FROM category WHERE name = ?"), eq(Short.class), eq("Travel")))
+                .thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> categoryDictionary.idOf("Travel"));
+    }
+
+    @Test
+    void testNullCategory() {
+        assertNull(categoryDictionary.idOf(null));
+        assertEquals(CategoryDictionary.NONE, categoryDictionary.keyOf(null));
+        assertNull(categoryDictionary.nameOf(CategoryDictionary.NONE));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Short.class), anyString());
+    }
+}
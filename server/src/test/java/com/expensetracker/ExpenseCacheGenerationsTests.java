@@ -0,0 +1,91 @@
+package com.expensetracker;
+
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.expensetracker.cache.ExpenseCacheGenerations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ExpenseCacheGenerationsTests {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, String, String> hashOperations;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    // Stands in for Redis; clearing it is a restart without persistence
+    private final Map<String, Map<String, String>> redis = new HashMap<>();
+
+    private ExpenseCacheGenerations generations;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.increment(anyString(), anyString(), anyLong())).thenAnswer(invocation -> {
+            Map<String, String> hash = redis.computeIfAbsent(invocation.getArgument(0), key -> new HashMap<>());
+            long count = Long.parseLong(hash.getOrDefault(invocation.getArgument(1), "0")) + invocation.<Long>getArgument(2);
+            hash.put(invocation.getArgument(1), Long.toString(count));
+            return count;
+        });
+        when(hashOperations.putIfAbsent(anyString(), anyString(), anyString())).thenAnswer(invocation ->
+                redis.computeIfAbsent(invocation.getArgument(0), key -> new HashMap<>())
+                        .putIfAbsent(invocation.getArgument(1), invocation.getArgument(2)) == null);
+        when(hashOperations.get(anyString(), any())).thenAnswer(invocation ->
+                redis.getOrDefault(invocation.getArgument(0), Map.of()).get(invocation.<String>getArgument(1)));
+        when(hashOperations.multiGet(anyString(), any())).thenAnswer(invocation -> {
+            Map<String, String> hash = redis.getOrDefault(invocation.getArgument(0), Map.of());
+            return invocation.<Collection<String>>getArgument(1).stream().map(hash::get).toList();
+        });
+        generations = new ExpenseCacheGenerations(redisTemplate, invalidationBus, 10000, 100);
+    }
+
+    @Test
+    void testBumpMovesTheGeneration() {
+        long before = generations.current(1L);
+
+        long bumped = generations.bump(1L);
+
+        assertEquals(before + 1, bumped);
+        generations.clearLocal();
+        assertEquals(bumped, generations.current(1L));
+    }
+
+    @Test
+    void testLostCountersDoNotRepeatGenerations() {
+        long first = generations.bump(1L);
+        long second = generations.bump(1L);
+
+        redis.clear();
+        generations.clearLocal();
+
+        List<Long> afterReset = List.of(generations.current(1L), generations.bump(1L), generations.bump(1L));
+        for (long generation : afterReset) {
+            assertNotEquals(first, generation);
+            assertNotEquals(second, generation);
+        }
+    }
+}
@@ -1,10 +1,22 @@
 package com.expensetracker;
 
 import com.expensetracker.controller.ExpenseController;
+import com.expensetracker.exception.ExpenseConflictException;
 import com.expensetracker.exception.ExpenseNotFoundException;
+import com.expensetracker.exception.ExportBusyException;
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.User;
+import com.expensetracker.exception.InvalidRequestException;
+import com.expensetracker.payload.response.BulkExpenseResponse;
+import com.expensetracker.payload.response.BulkExpenseResult;
+import com.expensetracker.payload.response.ExpensePageResponse;
+import com.expensetracker.payload.response.ExpenseSummaryResponse;
+import com.expensetracker.payload.response.RollupBucket;
+import com.expensetracker.repository.projection.ExpenseView;
 import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.ExportFormat;
+import com.expensetracker.service.ExportLimiter;
+import com.expensetracker.service.SummaryPeriod;
 import com.expensetracker.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,16 +25,27 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,6 +59,9 @@ public class ExpenseControllerTests {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ExportLimiter exportLimiter;
+
     @InjectMocks
     private ExpenseController expenseController;
 
@@ -69,25 +95,86 @@ public class ExpenseControllerTests {
 
     @Test
     void testGetAllExpenses() {
-        when(expenseService.getAllExpenses(any(User.class), eq(null), eq(null))).thenReturn(Arrays.asList(expense1, expense2));
+        when(expenseService.getAllExpenses(any(User.class), eq(null), eq(null))).thenReturn(Arrays.asList(ExpenseView.of(expense1), ExpenseView.of(expense2)));
 
-        List<Expense> expenses = expenseController.getAllExpenses(null, null);
+        List<ExpenseView> expenses = expenseController.getAllExpenses(null, null, webRequest()).getBody();
 
         assertEquals(2, expenses.size());
-        assertEquals("Groceries", expenses.get(0).getDescription());
+        assertEquals("Groceries", expenses.get(0).description());
     }
 
     @Test
     void testGetAllExpensesWithStartDateAndEndDate() {
         LocalDate startDate = LocalDate.of(2023, 1, 10);
         LocalDate endDate = LocalDate.of(2023, 1, 25);
-        when(expenseService.getAllExpenses(any(User.class), eq(startDate), eq(endDate))).thenReturn(Arrays.asList(expense1, expense2));
+        when(expenseService.getAllExpenses(any(User.class), eq(startDate), eq(endDate))).thenReturn(Arrays.asList(ExpenseView.of(expense1), ExpenseView.of(expense2)));
 
-        List<Expense> expenses = expenseController.getAllExpenses(startDate, endDate);
+        List<ExpenseView> expenses = expenseController.getAllExpenses(startDate, endDate, webRequest()).getBody();
 
         assertEquals(2, expenses.size());
     }
 
+    @Test
+    void testGetExpensePage() {
+        when(expenseService.getExpensePage(any(User.class), eq(null), eq(null), eq(null), eq(2)))
+                .thenReturn(new ExpensePageResponse(Arrays.asList(ExpenseView.of(expense2), ExpenseView.of(expense1)), "next-cursor"));
+
+        ExpensePageResponse page = expenseController.getExpensePage(null, null, null, 2, webRequest()).getBody();
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("next-cursor", page.getNext());
+    }
+
+    @Test
+    void testGetAllExpensesSetsETag() {
+        when(expenseService.getChangeVersion(any(User.class))).thenReturn(7L);
+        when(expenseService.getAllExpenses(any(User.class), eq(null), eq(null))).thenReturn(List.of(ExpenseView.of(expense1)));
+
+        ResponseEntity<List<ExpenseView>> response = expenseController.getAllExpenses(null, null, webRequest());
+
+        assertEquals("\"1-7\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetAllExpensesNotModified() {
+        when(expenseService.getChangeVersion(any(User.class))).thenReturn(7L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/expenses");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1-7\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertNull(expenseController.getAllExpenses(null, null, new ServletWebRequest(request, response)));
+
+        assertEquals(304, response.getStatus());
+        verify(expenseService, never()).getAllExpenses(any(User.class), any(), any());
+    }
+
+    @Test
+    void testGetExpenseSummary() {
+        when(expenseService.getExpenseSummary(any(User.class), eq(null), eq(null), eq(SummaryPeriod.WEEK)))
+                .thenReturn(new ExpenseSummaryResponse(80.0, 2, "week", Collections.emptyList(), Collections.emptyList()));
+
+        ExpenseSummaryResponse summary = expenseController.getExpenseSummary(null, null, "week");
+
+        assertEquals(80.0, summary.getTotal());
+        assertEquals(2, summary.getCount());
+    }
+
+    @Test
+    void testGetExpenseSummaryInvalidPeriod() {
+        assertThrows(InvalidRequestException.class, () -> expenseController.getExpenseSummary(null, null, "fortnight"));
+    }
+
+    @Test
+    void testGetExpenseRollup() {
+        when(expenseService.getExpenseRollup(any(User.class), eq(null), eq(null), eq(SummaryPeriod.DAY)))
+                .thenReturn(List.of(new RollupBucket(LocalDate.of(2025, 9, 5), "Food", new BigDecimal("15.75"), 1)));
+
+        List<RollupBucket> rollup = expenseController.getExpenseRollup(null, null, "day");
+
+        assertEquals(1, rollup.size());
+        assertEquals("Food", rollup.get(0).getCategory());
+    }
+
     @Test
     void testCreateExpense() {
         when(expenseService.createExpense(any(Expense.class))).thenReturn(expense1);
@@ -97,6 +184,19 @@ public class ExpenseControllerTests {
         assertEquals("Groceries", createdExpense.getDescription());
     }
 
+    @Test
+    void testCreateExpensesInBulk() {
+        when(expenseService.createExpenses(any())).thenReturn(Arrays.asList(
+                BulkExpenseResult.created(0, 1L),
+                BulkExpenseResult.failed(1, "category: size must be at most 255")));
+
+        BulkExpenseResponse response = expenseController.createExpenses(Arrays.asList(expense1, expense2));
+
+        assertEquals(1, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertEquals(1L, response.getResults().get(0).getId());
+    }
+
     @Test
     void testUpdateExpense() {
         when(expenseService.updateExpense(any(User.class), any(Long.class), any(Expense.class))).thenReturn(expense1);
@@ -117,6 +217,14 @@ public class ExpenseControllerTests {
         });
     }
 
+    @Test
+    void testUpdateExpenseConflict() {
+        when(expenseService.updateExpense(any(User.class), any(Long.class), any(Expense.class)))
+                .thenThrow(new ExpenseConflictException("Expense with id: 1 was modified concurrently (current version: 2)"));
+
+        assertThrows(ExpenseConflictException.class, () -> expenseController.updateExpense(1L, expense1));
+    }
+
     @Test
     void testDeleteExpense() {
         doNothing().when(expenseService).deleteExpense(any(User.class), eq(1L));
@@ -125,4 +233,30 @@ public class ExpenseControllerTests {
 
         verify(expenseService, times(1)).deleteExpense(any(User.class), eq(1L));
     }
-}
\ No newline at end of file
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/expenses"), new MockHttpServletResponse());
+    }
+
+    @Test
+    void testExportHoldsASlotUntilTheStreamEnds() throws Exception {
+        when(userService.getCurrentUser()).thenReturn(testUser);
+
+        ResponseEntity<StreamingResponseBody> response = expenseController.exportExpenses("csv", null, null);
+
+        verify(exportLimiter).acquire();
+        verify(exportLimiter, never()).release();
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        verify(expenseService).exportExpenses(eq(testUser), eq(null), eq(null), eq(ExportFormat.CSV), any());
+        verify(exportLimiter).release();
+    }
+
+    @Test
+    void testExportIsRefusedWhenNoSlotIsFree() {
+        when(userService.getCurrentUser()).thenReturn(testUser);
+        Mockito.doThrow(new ExportBusyException("busy")).when(exportLimiter).acquire();
+
+        assertThrows(ExportBusyException.class, () -> expenseController.exportExpenses("csv", null, null));
+        verify(exportLimiter, never()).release();
+    }
+}
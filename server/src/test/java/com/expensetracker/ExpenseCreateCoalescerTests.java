@@ -0,0 +1,147 @@
+package com.expensetracker;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.service.ExpenseBatchWriter;
+import com.expensetracker.service.ExpenseCreateCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpenseCreateCoalescerTests {
+
+    @Mock
+    private ExpenseBatchWriter batchWriter;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong ids = new AtomicLong();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private ExpenseCreateCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.stop();
+        }
+    }
+
+    @Test
+    void testConcurrentCreatesShareOneBatchAndGetTheirOwnIds() throws Exception {
+        writerAssignsIdsAndRejects("never");
+        coalescer = start(true, 50, 200);
+
+        List<Expense> expenses = new ArrayList<>();
+        List<CompletableFuture<Expense>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Expense expense = expense("Coffee " + i);
+            expenses.add(expense);
+            results.add(coalescer.submit(expense));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            Expense saved = results.get(i).get(5, TimeUnit.SECONDS);
+            assertSame(expenses.get(i), saved);
+            assertNotNull(saved.getId());
+        }
+        assertEquals(List.of(5), batchSizes);
+        assertEquals(5.0, meterRegistry.get("expensetracker.expenses.create.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedSoOnlyTheBadRowFails() throws Exception {
+        writerAssignsIdsAndRejects("Broken");
+        coalescer = start(true, 3, 200);
+
+        CompletableFuture<Expense> good = coalescer.submit(expense("Lunch"));
+        CompletableFuture<Expense> bad = coalescer.submit(expense("Broken"));
+        CompletableFuture<Expense> alsoGood = coalescer.submit(expense("Dinner"));
+
+        assertNotNull(good.get(5, TimeUnit.SECONDS).getId());
+        assertNotNull(alsoGood.get(5, TimeUnit.SECONDS).getId());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalArgumentException);
+        assertEquals(List.of(3, 1, 1, 1), batchSizes);
+        assertEquals(1.0, meterRegistry.get("expensetracker.expenses.create.batch.split").counter().count());
+    }
+
+    @Test
+    void testBatchIsNotRewrittenWhenOnlyAfterCommitWorkFails() throws Exception {
+        when(batchWriter.insert(anyList(), any(AtomicBoolean.class))).thenAnswer(invocation -> {
+            List<Expense> batch = invocation.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(batch.size());
+            }
+            batch.forEach(expense -> expense.setId(ids.incrementAndGet()));
+            AtomicBoolean committed = invocation.getArgument(1);
+            committed.set(true);
+            throw new IllegalStateException("Redis unavailable"); // Thrown by an after-commit hook
+        });
+        coalescer = start(true, 2, 200);
+
+        CompletableFuture<Expense> first = coalescer.submit(expense("Lunch"));
+        CompletableFuture<Expense> second = coalescer.submit(expense("Dinner"));
+
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(2L, second.get(5, TimeUnit.SECONDS).getId());
+        assertEquals(List.of(2), batchSizes);
+        assertEquals(0.0, meterRegistry.get("expensetracker.expenses.create.batch.split").counter().count());
+    }
+
+    @Test
+    void testDisabledCoalescerLeavesWritesToTheCaller() {
+        coalescer = start(false, 50, 5);
+
+        assertNull(coalescer.submit(expense("Coffee")));
+    }
+
+    private ExpenseCreateCoalescer start(boolean enabled, int maxBatch, long maxDelayMs) {
+        ExpenseCreateCoalescer started = new ExpenseCreateCoalescer(batchWriter, meterRegistry, enabled, maxBatch, maxDelayMs, 100, 1);
+        started.start();
+        return started;
+    }
+
+    private void writerAssignsIdsAndRejects(String badDescription) {
+        when(batchWriter.insert(anyList(), any(AtomicBoolean.class))).thenAnswer(invocation -> {
+            List<Expense> batch = invocation.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(batch.size());
+            }
+            for (Expense expense : batch) {
+                if (badDescription.equals(expense.getDescription())) {
+                    throw new IllegalArgumentException("Rejected " + badDescription);
+                }
+            }
+            batch.forEach(expense -> expense.setId(ids.incrementAndGet()));
+            return batch;
+        });
+    }
+
+    private static Expense expense(String description) {
+        User user = new User("user", "user@example.com", "password");
+        user.setId(1L);
+        return new Expense(null, description, 4.5, LocalDate.of(2024, 5, 1), "Food", user);
+    }
+}
@@ -0,0 +1,34 @@
+package com.expensetracker;
+
+import com.expensetracker.exception.InvalidCursorException;
+import com.expensetracker.service.ExpenseCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExpenseCursorTests {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        ExpenseCursor cursor = new ExpenseCursor(LocalDate.of(2023, 1, 15), 42L);
+
+        ExpenseCursor decoded = ExpenseCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void testUndatedPositionRoundTrips() {
+        ExpenseCursor cursor = new ExpenseCursor(null, 7L);
+
+        assertEquals(cursor, ExpenseCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void testDecodeRejectsGarbage() {
+        assertThrows(InvalidCursorException.class, () -> ExpenseCursor.decode("not-a-cursor"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.expensetracker;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.service.ExpenseExportWriter;
+import com.expensetracker.service.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExpenseExportWriterTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void testCsvExportQuotesFieldsWhenNeeded() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpenseExportWriter writer = new ExpenseExportWriter(ExportFormat.CSV, out, objectMapper);
+
+        writer.write(new Expense(1L, "Dinner, \"team\"", 30.0, LocalDate.of(2023, 1, 20), "Food", null));
+        writer.finish();
+
+        assertEquals("id,date,description,amount,category\n1,2023-01-20,\"Dinner, \"\"team\"\"\",30.0,Food\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testNdjsonExportWritesOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpenseExportWriter writer = new ExpenseExportWriter(ExportFormat.NDJSON, out, objectMapper);
+
+        writer.write(new Expense(1L, "Groceries", 50.0, LocalDate.of(2023, 1, 15), "Food", null));
+        writer.write(new Expense(2L, "Dinner", 30.0, LocalDate.of(2023, 1, 20), "Food", null));
+        writer.finish();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong());
+        assertEquals("2023-01-15", objectMapper.readTree(lines[0]).get("date").asText());
+    }
+}
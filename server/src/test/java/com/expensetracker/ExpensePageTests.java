@@ -0,0 +1,69 @@
+package com.expensetracker;
+
+import com.expensetracker.model.User;
+import com.expensetracker.payload.response.ExpensePageResponse;
+import com.expensetracker.repository.projection.ExpenseView;
+import com.expensetracker.service.ExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Runs against the local PostgreSQL like DemoApplicationTests; each test rolls back its rows
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = {"expensetracker.app.jwtSecret=testsecret", "expensetracker.app.jwtExpirationMs=3600000"})
+class ExpensePageTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    private User user;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("pageuser", "page@example.com", "x");
+        user.setId(jdbcTemplate.queryForObject("INSERT INTO users (username, email, password) VALUES ('pageuser', 'page@example.com', 'x') RETURNING id", Long.class));
+        ids = new ArrayList<>();
+        for (LocalDate date : new LocalDate[]{LocalDate.of(2023, 1, 15), null, LocalDate.of(2023, 2, 1), null, null}) {
+            ids.add(jdbcTemplate.queryForObject("INSERT INTO expense (description, amount, date, user_id) VALUES ('Paged', 1.0, ?, ?) RETURNING id",
+                    Long.class, date != null ? Date.valueOf(date) : null, user.getId()));
+        }
+    }
+
+    @Test
+    void testUndatedExpensesArePagedLast() {
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            ExpensePageResponse page = expenseService.getExpensePage(user, null, null, cursor, 2);
+            page.getItems().stream().map(ExpenseView::id).forEach(paged::add);
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        assertEquals(List.of(ids.get(2), ids.get(0), ids.get(4), ids.get(3), ids.get(1)), paged);
+    }
+
+    @Test
+    void testDateRangeLeavesUndatedExpensesOut() {
+        ExpensePageResponse page = expenseService.getExpensePage(user, LocalDate.of(2023, 1, 1), null, null, 10);
+
+        assertEquals(List.of(ids.get(2), ids.get(0)), page.getItems().stream().map(ExpenseView::id).toList());
+        assertNull(page.getNext());
+    }
+}
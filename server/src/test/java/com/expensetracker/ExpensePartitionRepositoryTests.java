@@ -0,0 +1,87 @@
+package com.expensetracker;
+
+import com.expensetracker.repository.ExpensePartitionRepository;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against the local PostgreSQL like DemoApplicationTests; DDL is transactional there, so each test rolls back its partitions too
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = {"expensetracker.app.jwtSecret=testsecret", "expensetracker.app.jwtExpirationMs=3600000"})
+class ExpensePartitionRepositoryTests {
+
+    private static final YearMonth FAR_MONTH = YearMonth.of(2099, 5);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExpensePartitionRepository partitionRepository;
+
+    @Autowired
+    private ExpenseRollupRepository rollupRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password) VALUES ('partitionuser', 'partition@example.com', 'x') RETURNING id", Long.class);
+    }
+
+    @Test
+    void testCreateMonthMovesRowsOutOfDefault() {
+        Long id = insert(FAR_MONTH.atDay(10));
+        assertEquals(1, countIn("expense_default", id));
+
+        partitionRepository.lockForMaintenance();
+        assertEquals(1, partitionRepository.createMonth(FAR_MONTH));
+
+        assertEquals(0, countIn("expense_default", id));
+        assertEquals(1, countIn(ExpensePartitionRepository.partitionName(FAR_MONTH), id));
+        assertEquals(1, countIn("expense", id));
+        assertTrue(partitionRepository.findMonths().contains(FAR_MONTH));
+        assertEquals(-1, partitionRepository.createMonth(FAR_MONTH));
+    }
+
+    @Test
+    void testDetachMonthHidesItsRows() {
+        partitionRepository.lockForMaintenance();
+        partitionRepository.createMonth(FAR_MONTH);
+        Long id = insert(FAR_MONTH.atDay(1));
+
+        rollupRepository.rebuild(userId);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM expense_monthly_rollup WHERE user_id = ?", Integer.class, userId));
+
+        partitionRepository.detachMonth(FAR_MONTH);
+        rollupRepository.deleteMonth(FAR_MONTH);
+
+        assertEquals(0, countIn("expense", id));
+        assertEquals(1, countIn(ExpensePartitionRepository.partitionName(FAR_MONTH), id));
+        assertEquals(List.of(userId), partitionRepository.findUsers(FAR_MONTH));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM expense_monthly_rollup WHERE user_id = ?", Integer.class, userId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM expense_daily_rollup WHERE user_id = ?", Integer.class, userId));
+    }
+
+    private Long insert(LocalDate date) {
+        return jdbcTemplate.queryForObject("INSERT INTO expense (description, amount, date, user_id) VALUES ('Far ahead', 10.0, ?, ?) RETURNING id",
+                Long.class, Date.valueOf(date), userId);
+    }
+
+    private int countIn(String table, Long id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE id = ?", Integer.class, id);
+    }
+}
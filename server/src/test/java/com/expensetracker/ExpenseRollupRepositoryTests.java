@@ -0,0 +1,109 @@
+package com.expensetracker;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.response.RollupBucket;
+import com.expensetracker.repository.CategoryDictionary;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import com.expensetracker.service.ExpenseRollupService;
+import com.expensetracker.service.ExpenseRollupService.Bucketed;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Runs against the local PostgreSQL like DemoApplicationTests; each test rolls back its rows
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = {"expensetracker.app.jwtSecret=testsecret", "expensetracker.app.jwtExpirationMs=3600000"})
+class ExpenseRollupRepositoryTests {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryDictionary categoryDictionary;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private ExpenseRollupRepository rollupRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password) VALUES ('rollupuser', 'rollup@example.com', 'x') RETURNING id", Long.class);
+        // Committed on their own, so not on behalf of this test's uncommitted user
+        categoryDictionary.register(null, List.of("Food", "Travel"));
+    }
+
+    @Test
+    void testCreateUpdateAndDeleteMoveBuckets() {
+        rollupService.recordCreated(userId, List.of(
+                expense(10.0, LocalDate.of(2024, 3, 5), "Food"),
+                expense(5.0, LocalDate.of(2024, 3, 5), "Food"),
+                expense(20.0, LocalDate.of(2024, 3, 20), "Travel")));
+
+        assertEquals(List.of("2024-03-05 Food 15.0 x2", "2024-03-20 Travel 20.0 x1"), describe(rollupRepository.findDaily(userId, FROM, TO)));
+        assertEquals(List.of("2024-03-01 Food 15.0 x2", "2024-03-01 Travel 20.0 x1"), describe(rollupRepository.findMonthly(userId, FROM, TO)));
+
+        // The 5.0 lunch moves to another day, month and category
+        rollupService.recordUpdated(userId, new Bucketed(LocalDate.of(2024, 3, 5), "Food", 5.0), expense(7.0, LocalDate.of(2024, 4, 2), "Travel"));
+
+        assertEquals(List.of("2024-03-05 Food 10.0 x1", "2024-03-20 Travel 20.0 x1", "2024-04-02 Travel 7.0 x1"),
+                describe(rollupRepository.findDaily(userId, FROM, TO)));
+        assertEquals(List.of("2024-03-01 Food 10.0 x1", "2024-03-01 Travel 20.0 x1", "2024-04-01 Travel 7.0 x1"),
+                describe(rollupRepository.findMonthly(userId, FROM, TO)));
+
+        rollupService.recordDeleted(userId, expense(7.0, LocalDate.of(2024, 4, 2), "Travel"));
+
+        // Emptied buckets are removed rather than left at zero
+        assertEquals(List.of("2024-03-05 Food 10.0 x1", "2024-03-20 Travel 20.0 x1"), describe(rollupRepository.findDaily(userId, FROM, TO)));
+        assertEquals(List.of("2024-03-01 Food 10.0 x1", "2024-03-01 Travel 20.0 x1"), describe(rollupRepository.findMonthly(userId, FROM, TO)));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM expense_daily_rollup WHERE user_id = ? AND count = 0", Integer.class, userId));
+    }
+
+    @Test
+    void testRebuildRecomputesFromExpenses() {
+        insert(10.0, LocalDate.of(2024, 3, 5), "Food");
+        insert(2.5, LocalDate.of(2024, 3, 5), "Food");
+        insert(40.0, LocalDate.of(2024, 5, 31), "Travel");
+        insert(3.0, null, "Food"); // Undated rows have no bucket
+        // Drift that the rebuild must discard
+        rollupService.recordCreated(userId, List.of(expense(99.0, LocalDate.of(2024, 3, 5), "Food")));
+
+        rollupRepository.rebuild(userId);
+
+        assertEquals(List.of("2024-03-05 Food 12.5 x2", "2024-05-31 Travel 40.0 x1"), describe(rollupRepository.findDaily(userId, FROM, TO)));
+        assertEquals(List.of("2024-03-01 Food 12.5 x2"), describe(rollupRepository.findMonthly(userId, FROM, LocalDate.of(2024, 3, 31))));
+    }
+
+    private void insert(double amount, LocalDate date, String category) {
+        jdbcTemplate.update("INSERT INTO expense (description, amount, date, category_id, user_id) VALUES ('Rolled up', ?, ?, ?, ?)",
+                amount, date != null ? Date.valueOf(date) : null, categoryDictionary.findId(category), userId);
+    }
+
+    private static Expense expense(double amount, LocalDate date, String category) {
+        return new Expense(null, "Rolled up", amount, date, category, null);
+    }
+
+    private static List<String> describe(List<RollupBucket> buckets) {
+        return buckets.stream()
+                .map(bucket -> bucket.getPeriod() + " " + bucket.getCategory() + " " + bucket.getTotal().doubleValue() + " x" + bucket.getCount())
+                .sorted() // Buckets of one day are ordered by category id, which depends on what other tests registered
+                .toList();
+    }
+}
@@ -0,0 +1,78 @@
+package com.expensetracker;
+
+import com.expensetracker.repository.CategoryDictionary;
+import com.expensetracker.repository.ExpenseSearchRepository;
+import com.expensetracker.repository.ExpenseSearchRepository.SearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Runs against the local PostgreSQL like DemoApplicationTests; each test rolls back its rows
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = {"expensetracker.app.jwtSecret=testsecret", "expensetracker.app.jwtExpirationMs=3600000"})
+class ExpenseSearchRepositoryTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryDictionary categoryDictionary;
+
+    @Autowired
+    private ExpenseSearchRepository searchRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password) VALUES ('searchuser', 'search@example.com', 'x') RETURNING id", Long.class);
+        // Committed on their own, so not on behalf of this test's uncommitted user
+        categoryDictionary.register(null, List.of("Food", "Travel"));
+        insert("Team dinner downtown", "Food", LocalDate.of(2023, 1, 20));
+        insert("Dinner", "Food", LocalDate.of(2023, 3, 1));
+        insert("Train to the team offsite", "Travel", LocalDate.of(2023, 2, 1));
+        insert("Groceries", "Food", LocalDate.of(2023, 1, 15));
+    }
+
+    @Test
+    void testPrefixMatchRankedAndFiltered() {
+        List<SearchHit> hits = searchRepository.search(userId, "din:*", null, null, null, null, null, 10);
+        assertEquals(2, hits.size());
+
+        List<SearchHit> both = searchRepository.search(userId, "team:* & din:*", null, null, null, null, null, 10);
+        assertEquals(1, both.size());
+        assertEquals("Team dinner downtown", both.get(0).expense().description());
+
+        List<SearchHit> travel = searchRepository.search(userId, "team:*", categoryDictionary.findId("Travel"), null, null, null, null, 10);
+        assertEquals(1, travel.size());
+
+        List<SearchHit> inFebruary = searchRepository.search(userId, "din:*", null, LocalDate.of(2023, 2, 1), null, null, null, 10);
+        assertEquals(1, inFebruary.size());
+    }
+
+    @Test
+    void testKeysetPagination() {
+        List<SearchHit> first = searchRepository.search(userId, "din:* | team:*", null, null, null, null, null, 2);
+        SearchHit last = first.get(1);
+        List<SearchHit> second = searchRepository.search(userId, "din:* | team:*", null, null, null, last.rank(), last.expense().id(), 2);
+
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+    }
+
+    private void insert(String description, String category, LocalDate date) {
+        jdbcTemplate.update("INSERT INTO expense (description, amount, date, category_id, user_id) VALUES (?, 10.0, ?, ?, ?)",
+                description, Date.valueOf(date), categoryDictionary.idOf(category), userId);
+    }
+}
@@ -0,0 +1,89 @@
+package com.expensetracker;
+
+import com.expensetracker.cache.ExpenseSnapshot;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.projection.CategoryTotal;
+import com.expensetracker.repository.projection.ExpenseView;
+import com.expensetracker.repository.projection.PeriodTotal;
+import com.expensetracker.service.SummaryPeriod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ExpenseSnapshotTests {
+
+    private ExpenseSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = ExpenseSnapshot.of(List.of(
+                new Expense(3L, "Dinner", 30.25, LocalDate.of(2023, 1, 20), "Food", null),
+                new Expense(1L, "Lunch", 15.5, LocalDate.of(2023, 1, 15), "Food", null),
+                new Expense(2L, "Train", 40.0, LocalDate.of(2023, 2, 1), "Travel", null),
+                new Expense(4L, "Undated", 5.0, null, null, null)));
+    }
+
+    @Test
+    void testFindMatchesRepositoryBounds() {
+        assertEquals(List.of(1L, 3L), ids(snapshot.find(LocalDate.of(2023, 1, 15), LocalDate.of(2023, 1, 20))));
+        assertEquals(List.of(3L, 2L), ids(snapshot.find(LocalDate.of(2023, 1, 15), null)));
+        assertEquals(List.of(1L), ids(snapshot.find(null, LocalDate.of(2023, 1, 20))));
+        assertEquals(List.of(4L, 1L, 3L, 2L), ids(snapshot.find(null, null)));
+    }
+
+    @Test
+    void testSums() {
+        List<CategoryTotal> byCategory = snapshot.sumByCategory(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+        assertEquals("Food", byCategory.get(0).getCategory());
+        assertEquals(45.75, byCategory.get(0).getTotal());
+        assertEquals(2L, byCategory.get(0).getCount());
+
+        List<PeriodTotal> byMonth = snapshot.sumByPeriod(SummaryPeriod.MONTH, null, null);
+        assertEquals(2, byMonth.size());
+        assertEquals("2023-01-01", byMonth.get(0).getPeriod());
+        assertEquals(45.75, byMonth.get(0).getTotal());
+        assertEquals(15.5, byMonth.get(0).getMinAmount());
+
+        List<PeriodTotal> byWeek = snapshot.sumByPeriod(SummaryPeriod.WEEK, null, null);
+        assertEquals("2023-01-09", byWeek.get(0).getPeriod()); // Monday before 2023-01-15
+    }
+
+    @Test
+    void testWritesMoveRows() {
+        ExpenseSnapshot updated = snapshot
+                .withUpserted(new Expense(1L, "Lunch", 15.5, LocalDate.of(2023, 3, 1), "Food", null))
+                .withUpserted(new Expense(5L, "Hotel", 120.0, LocalDate.of(2023, 1, 16), "Lodging", null))
+                .without(2L);
+
+        assertEquals(List.of(4L, 5L, 3L, 1L), ids(updated.find(null, null)));
+        assertEquals(4, snapshot.size()); // Original is untouched
+    }
+
+    @Test
+    void testBatchUpsertMergesInOnePass() {
+        ExpenseSnapshot updated = snapshot.withUpserted(List.of(
+                new Expense(6L, "Taxi", 12.0, LocalDate.of(2023, 1, 20), "Travel", null),
+                new Expense(3L, "Dinner", 31.0, LocalDate.of(2023, 2, 1), "Food", null),
+                new Expense(5L, "Hotel", 120.0, LocalDate.of(2023, 1, 16), "Lodging", null),
+                new Expense(7L, "Old", 1.0, null, "Misc", null)));
+
+        assertEquals(List.of(4L, 7L, 1L, 5L, 6L, 2L, 3L), ids(updated.find(null, null)));
+        assertEquals(31.0, updated.find(LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 1)).get(1).amount());
+        assertEquals("Lodging", updated.sumByCategory(null, null).get(0).getCategory());
+        assertNull(snapshot.withUpserted(List.of(new Expense(8L, "Fuel", 1.005, LocalDate.of(2023, 1, 1), "Car", null))));
+    }
+
+    @Test
+    void testSubCentAmountsAreNotSnapshotted() {
+        assertNull(ExpenseSnapshot.of(List.of(new Expense(1L, "Fuel", 1.005, LocalDate.of(2023, 1, 1), "Car", null))));
+    }
+
+    private static List<Long> ids(List<ExpenseView> expenses) {
+        return expenses.stream().map(ExpenseView::id).toList();
+    }
+}
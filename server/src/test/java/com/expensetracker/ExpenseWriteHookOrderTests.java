@@ -0,0 +1,93 @@
+package com.expensetracker;
+
+import com.expensetracker.cache.ExpenseCacheGenerations;
+import com.expensetracker.cache.ExpenseSnapshotStore;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseWriteRepository;
+import com.expensetracker.repository.routing.ReadYourWrites;
+import com.expensetracker.service.ExpenseBatchWriter;
+import com.expensetracker.service.ExpenseRollupService;
+import com.expensetracker.service.ExpenseServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+// After-commit hooks run in registration order; the sticky-write mark must reach peers before the snapshot evict
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ExpenseWriteHookOrderTests {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ExpenseWriteRepository expenseWriteRepository;
+
+    @Mock
+    private ExpenseRollupService rollupService;
+
+    @Mock
+    private ExpenseSnapshotStore snapshotStore;
+
+    @Mock
+    private ExpenseCacheGenerations cacheGenerations;
+
+    @Mock
+    private ReadYourWrites readYourWrites;
+
+    @InjectMocks
+    private ExpenseServiceImpl expenseService;
+
+    @Test
+    void testDeleteMarksTheWriteBeforeTouchingTheSnapshot() {
+        User user = user();
+        when(expenseWriteRepository.deleteByIdAndUserId(5L, 1L)).thenReturn(Optional.of(expense(5L, user)));
+
+        expenseService.deleteExpense(user, 5L);
+
+        InOrder order = inOrder(readYourWrites, snapshotStore, cacheGenerations);
+        order.verify(readYourWrites).markWriteAfterCommit(1L);
+        order.verify(snapshotStore).removeAfterCommit(1L, 5L);
+        order.verify(cacheGenerations).bumpAfterCommit(1L);
+    }
+
+    @Test
+    void testBatchInsertMarksTheWriteBeforeTouchingTheSnapshot() {
+        User user = user();
+        List<Expense> saved = List.of(expense(7L, user));
+        when(expenseRepository.saveAll(anyList())).thenReturn(saved);
+        ExpenseBatchWriter batchWriter = new ExpenseBatchWriter(expenseRepository, rollupService, snapshotStore, cacheGenerations, readYourWrites);
+
+        batchWriter.insert(saved);
+
+        InOrder order = inOrder(readYourWrites, snapshotStore, cacheGenerations);
+        order.verify(readYourWrites).markWriteAfterCommit(1L);
+        order.verify(snapshotStore).upsertAfterCommit(1L, saved);
+        order.verify(cacheGenerations).bumpAfterCommit(1L);
+    }
+
+    private static User user() {
+        User user = new User("orderuser", "order@example.com", "x");
+        user.setId(1L);
+        return user;
+    }
+
+    private static Expense expense(Long id, User user) {
+        return new Expense(id, "Lunch", 12.5, LocalDate.of(2024, 3, 1), "Food", user);
+    }
+}
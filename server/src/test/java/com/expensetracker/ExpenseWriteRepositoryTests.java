@@ -0,0 +1,129 @@
+package com.expensetracker;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.CategoryDictionary;
+import com.expensetracker.repository.ExpensePartitionRepository;
+import com.expensetracker.repository.ExpenseWriteRepository;
+import com.expensetracker.repository.ExpenseWriteRepository.ExpenseChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against the local PostgreSQL like DemoApplicationTests; DDL is transactional there, so each test rolls back its partitions too
+@SpringBootTest
+@Transactional
+@TestPropertySource(properties = {"expensetracker.app.jwtSecret=testsecret", "expensetracker.app.jwtExpirationMs=3600000"})
+class ExpenseWriteRepositoryTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryDictionary categoryDictionary;
+
+    @Autowired
+    private ExpenseWriteRepository writeRepository;
+
+    @Autowired
+    private ExpensePartitionRepository partitionRepository;
+
+    private Long userId;
+    private Long otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password) VALUES ('writeuser', 'write@example.com', 'x') RETURNING id", Long.class);
+        otherUserId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password) VALUES ('otheruser', 'other@example.com', 'x') RETURNING id", Long.class);
+        // Committed on their own, so not on behalf of this test's uncommitted users
+        categoryDictionary.register(null, List.of("Food", "Travel"));
+    }
+
+    @Test
+    void testUpdateWithMatchingVersion() {
+        Long id = insert(LocalDate.of(2024, 3, 1));
+
+        ExpenseChange change = writeRepository.updateByIdAndUserId(id, userId, details(LocalDate.of(2024, 3, 2), 0L)).orElseThrow();
+
+        assertEquals("Lunch", change.before().getDescription());
+        assertEquals("Food", change.before().getCategory());
+        assertEquals(1L, change.after().getVersion());
+        assertEquals("Train", stored(id, "description"));
+        assertEquals("1", stored(id, "version"));
+    }
+
+    @Test
+    void testStaleVersionLeavesTheRowAlone() {
+        Long id = insert(LocalDate.of(2024, 3, 1));
+
+        ExpenseChange change = writeRepository.updateByIdAndUserId(id, userId, details(LocalDate.of(2024, 3, 2), 5L)).orElseThrow();
+
+        assertNull(change.after()); // The service answers 409 Conflict for this
+        assertEquals(0L, change.before().getVersion());
+        assertEquals("Lunch", stored(id, "description"));
+        assertEquals("0", stored(id, "version"));
+    }
+
+    @Test
+    void testOtherUsersExpensesAreNotFound() {
+        Long id = insert(LocalDate.of(2024, 3, 1));
+
+        assertEquals(Optional.empty(), writeRepository.updateByIdAndUserId(id, otherUserId, details(LocalDate.of(2024, 3, 2), null)));
+        assertEquals(Optional.empty(), writeRepository.deleteByIdAndUserId(id, otherUserId));
+        assertEquals("Lunch", stored(id, "description"));
+
+        Expense deleted = writeRepository.deleteByIdAndUserId(id, userId).orElseThrow();
+        assertEquals("Lunch", deleted.getDescription());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM expense WHERE id = ?", Integer.class, id));
+    }
+
+    @Test
+    void testDateChangeMovesTheRowAcrossPartitions() {
+        YearMonth from = YearMonth.of(2099, 5);
+        YearMonth to = from.plusMonths(1);
+        partitionRepository.lockForMaintenance();
+        partitionRepository.createMonth(from);
+        partitionRepository.createMonth(to);
+        Long id = insert(from.atDay(10));
+
+        ExpenseChange change = writeRepository.updateByIdAndUserId(id, userId, details(to.atDay(3), 0L)).orElseThrow();
+
+        assertEquals(from.atDay(10), change.before().getDate());
+        assertEquals(1L, change.after().getVersion());
+        assertEquals(0, countIn(ExpensePartitionRepository.partitionName(from), id));
+        assertEquals(1, countIn(ExpensePartitionRepository.partitionName(to), id));
+        assertTrue(writeRepository.deleteByIdAndUserId(id, userId).isPresent());
+    }
+
+    private Long insert(LocalDate date) {
+        return jdbcTemplate.queryForObject("INSERT INTO expense (description, amount, date, category_id, user_id) VALUES ('Lunch', 12.5, ?, ?, ?) RETURNING id",
+                Long.class, Date.valueOf(date), categoryDictionary.findId("Food"), userId);
+    }
+
+    private static Expense details(LocalDate date, Long version) {
+        Expense details = new Expense(null, "Train", 40.0, date, "Travel", null);
+        details.setVersion(version);
+        return details;
+    }
+
+    private String stored(Long id, String column) {
+        return jdbcTemplate.queryForObject("SELECT CAST(" + column + " AS TEXT) FROM expense WHERE id = ?", String.class, id);
+    }
+
+    private int countIn(String table, Long id) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE id = ?", Integer.class, id);
+    }
+}
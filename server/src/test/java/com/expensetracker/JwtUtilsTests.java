@@ -0,0 +1,78 @@
+package com.expensetracker;
+
+import com.expensetracker.security.jwt.JwtUtils;
+import com.expensetracker.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JwtUtilsTests {
+
+    private static final String SECRET = "dGVzdHNlY3JldHRlc3RzZWNyZXR0ZXN0c2VjcmV0dGVzdHNlY3JldA==";
+
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3600000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtCacheMaxSize", 100L);
+        jwtUtils.init();
+
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "testuser", "test@example.com", "password");
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+    }
+
+    @Test
+    void testGenerateAndParseToken() {
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        Claims claims = jwtUtils.parseJwtToken(token);
+
+        assertNotNull(claims);
+        assertEquals("testuser", claims.getSubject());
+        assertTrue(jwtUtils.validateJwtToken(token));
+    }
+
+    @Test
+    void testUserDetailsAreBuiltFromClaims() {
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        UserDetailsImpl userDetails = jwtUtils.getUserDetailsFromClaims(jwtUtils.parseJwtToken(token));
+
+        assertNotNull(userDetails);
+        assertEquals(1L, userDetails.getId());
+        assertEquals("testuser", userDetails.getUsername());
+        assertEquals("test@example.com", userDetails.getEmail());
+    }
+
+    @Test
+    void testVerifiedTokenIsServedFromCache() {
+        String token = jwtUtils.generateJwtToken(authentication);
+
+        assertSame(jwtUtils.parseJwtToken(token), jwtUtils.parseJwtToken(token));
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        String token = jwtUtils.generateJwtToken(authentication);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(jwtUtils.parseJwtToken(tampered));
+        assertFalse(jwtUtils.validateJwtToken("not.a.token"));
+    }
+}
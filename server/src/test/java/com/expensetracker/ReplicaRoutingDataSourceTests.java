@@ -0,0 +1,117 @@
+package com.expensetracker;
+
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.expensetracker.repository.routing.ReadYourWrites;
+import com.expensetracker.repository.routing.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTests {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final AtomicReference<Long> currentUser = new AtomicReference<>(7L);
+    private ReadYourWrites readYourWrites;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        readYourWrites = new ReadYourWrites(invalidationBus, "jdbc:postgresql://localhost:5433/mydb", 60_000);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, readYourWrites, currentUser::get,
+                new SimpleMeterRegistry(), 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToTheReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertSame(replicaConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void testWritesGoToThePrimary() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void testExplicitCredentialsGoToThePrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(primary.getConnection("app", "secret")).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routingDataSource.getConnection("app", "secret"));
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void testUserWhoJustWroteReadsFromThePrimary() throws SQLException {
+        readYourWrites.markWriteAfterCommit(7L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verify(replica, never()).getConnection();
+        verify(invalidationBus).publishEvict("datasource:recent-writers", "7");
+    }
+
+    @Test
+    void testOtherUsersStillReadFromTheReplica() throws SQLException {
+        readYourWrites.markWriteAfterCommit(8L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        assertSame(replicaConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void testUnreachableReplicaFallsBackToThePrimaryAndLeavesRotation() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertFalse(routingDataSource.isHealthy("replica-1"));
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verify(replica).getConnection(); // Not retried until a health check passes
+    }
+}
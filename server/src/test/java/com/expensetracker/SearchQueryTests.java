@@ -0,0 +1,45 @@
+package com.expensetracker;
+
+import com.expensetracker.exception.InvalidCursorException;
+import com.expensetracker.exception.InvalidRequestException;
+import com.expensetracker.service.SearchCursor;
+import com.expensetracker.service.SearchQuery;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SearchQueryTests {
+
+    @Test
+    void testWordsBecomePrefixTerms() {
+        assertEquals("team:* & din:*", SearchQuery.toPrefixTsQuery("Team  din"));
+    }
+
+    @Test
+    void testShortWordsMatchWholeWordsOnly() {
+        assertEquals("a & to & bus:*", SearchQuery.toPrefixTsQuery("a to bus"));
+    }
+
+    @Test
+    void testOperatorsAreStripped() {
+        assertEquals("coffee:* & tea:*", SearchQuery.toPrefixTsQuery("coffee | !tea:*"));
+    }
+
+    @Test
+    void testQueryWithoutWordsIsRejected() {
+        assertThrows(InvalidRequestException.class, () -> SearchQuery.toPrefixTsQuery(" & !"));
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        SearchCursor cursor = new SearchCursor(0.0607927f, 42L);
+
+        assertEquals(cursor, SearchCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void testCursorRejectsGarbage() {
+        assertThrows(InvalidCursorException.class, () -> SearchCursor.decode("not-a-cursor"));
+    }
+}
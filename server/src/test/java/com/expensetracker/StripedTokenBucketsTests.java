@@ -0,0 +1,79 @@
+package com.expensetracker;
+
+import com.expensetracker.security.ratelimit.StripedTokenBuckets;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StripedTokenBucketsTests {
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    void testBurstIsGrantedThenCallerIsToldHowLongToWait() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(3, 2, 1024, clock::get);
+
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertEquals(0, buckets.tryAcquire("10.0.0.1"));
+        assertEquals(500, buckets.tryAcquire("10.0.0.1")); // Two tokens a second: next one in 500 ms
+    }
+
+    @Test
+    void testTokensRefillOverTimeUpToCapacity() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(2, 10, 1024, clock::get);
+        buckets.tryAcquire(42L);
+        buckets.tryAcquire(42L);
+
+        clock.addAndGet(100);
+        assertEquals(0, buckets.tryAcquire(42L));
+        assertTrue(buckets.tryAcquire(42L) > 0);
+
+        clock.addAndGet(60_000);
+        assertEquals(0, buckets.tryAcquire(42L));
+        assertEquals(0, buckets.tryAcquire(42L));
+        assertTrue(buckets.tryAcquire(42L) > 0); // Idle time does not bank more than the burst
+    }
+
+    @Test
+    void testKeysInDifferentStripesDoNotShareABudget() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 1, 1 << 16, clock::get);
+
+        assertEquals(0, buckets.tryAcquire(1L));
+        assertTrue(buckets.tryAcquire(1L) > 0);
+        assertEquals(0, buckets.tryAcquire(2L));
+    }
+
+    @Test
+    void testConcurrentCallersNeverOverdrawABucket() throws Exception {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(500, 1, 16, clock::get);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    if (buckets.tryAcquire("shared") == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, granted.get());
+    }
+
+    @Test
+    void testRejectsCapacityThatDoesNotFitTheStripe() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedTokenBuckets(20_000, 1, 16));
+    }
+}
@@ -0,0 +1,73 @@
+package com.expensetracker;
+
+import com.expensetracker.cache.CacheInvalidationBus;
+import com.expensetracker.cache.TwoLevelCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class TwoLevelCacheTests {
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    private ConcurrentMapCache remoteCache;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        remoteCache = new ConcurrentMapCache("expense");
+        cache = new TwoLevelCache("expense", Caffeine.newBuilder().maximumSize(100).build(), remoteCache, invalidationBus);
+    }
+
+    @Test
+    void testReadThroughPopulatesLocalTier() {
+        remoteCache.put("1:1", "value");
+
+        assertEquals("value", cache.get("1:1").get());
+        remoteCache.evict("1:1");
+
+        // Served from the local tier once loaded
+        assertEquals("value", cache.get("1:1").get());
+    }
+
+    @Test
+    void testPutFillsBothTiersWithoutBroadcasting() {
+        cache.put("1:1", "value");
+        remoteCache.evict("1:1");
+
+        assertEquals("value", cache.get("1:1").get());
+        verify(invalidationBus, never()).publishEvict(anyString(), anyString());
+    }
+
+    @Test
+    void testEvictClearsBothTiersAndBroadcasts() {
+        cache.put("1:1", "value");
+
+        cache.evict("1:1");
+
+        assertNull(cache.get("1:1"));
+        verify(invalidationBus).publishEvict("expense", "1:1");
+    }
+
+    @Test
+    void testRemoteInvalidationDropsLocalCopy() {
+        cache.put("1:1", "value");
+        remoteCache.put("1:1", "newer");
+
+        cache.evictLocal("1:1");
+
+        assertEquals("newer", cache.get("1:1").get());
+    }
+}